@@ -0,0 +1,45 @@
+package com.appsoil.solvle.benchmark;
+
+import com.appsoil.solvle.service.SolvescapeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solvescape anagram lookups over every word length of the big dictionary
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnagramBenchmark {
+
+    @Param({"solvle", "anagrams", "benchmarked"})
+    public String letters;
+
+    private SolvescapeService solvescapeService;
+
+    @Setup
+    public void setUp() {
+        solvescapeService = new SolvescapeService(GameState.readDictionary("/dict2/enable1.txt", length -> true));
+    }
+
+    @Benchmark
+    public Map<Integer, List<String>> getAnagrams() {
+        return solvescapeService.getAnagrams(letters);
+    }
+}
@@ -0,0 +1,139 @@
+package com.appsoil.solvle.benchmark;
+
+import com.appsoil.solvle.data.Alphabet;
+import com.appsoil.solvle.data.Dictionary;
+import com.appsoil.solvle.data.PositionLetterCounts;
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.data.WordRestrictions;
+import com.appsoil.solvle.service.WordCalculationConfig;
+import com.appsoil.solvle.service.WordCalculationService;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+/**
+ * A game in progress on one of the word lists, at the start, after one guess or after two guesses. The solution and
+ * guesses are the same for every English word list so the stages are comparable between them, and the dictionaries
+ * are loaded and indexed the same way the application loads them. The Icelandic list has its own game in Icelandic
+ * letters, which only have {@link Alphabet} indexes once the list has registered them.
+ */
+@State(Scope.Benchmark)
+public class GameState {
+
+    static final Word SOLUTION = new Word("cover");
+
+    // guesses made on the way to the solution. Each stage has made the guesses before its own
+    private static final List<Word> GUESSES = List.of(new Word("slate"), new Word("crony"), SOLUTION);
+
+    // þræði has over a thousand candidates after stóra and 5 after hæðir. Kept as strings until the list's letters are registered
+    private static final List<String> ICELANDIC_GUESSES = List.of("stóra", "hæðir", "þræði");
+
+    @Param({"simple", "reduced", "big", "huge", "iceland"})
+    public String wordList;
+
+    @Param({"early", "mid", "late"})
+    public String stage;
+
+    Set<Word> primary;
+    Set<Word> fishing;
+    WordRestrictions restrictions;
+    String restrictionString;
+    Word nextGuess;              // the guess made at this stage
+    Set<Word> containedWords;    // solutions still possible at this stage
+    PositionLetterCounts positionCounts;
+    WordCalculationService service;
+
+    @Setup
+    public void setUp() {
+        // same lists SolvleService uses for 5-letter words
+        primary = switch(wordList) {
+            case "simple" -> readWords("/dict2/simple-solutions.txt");
+            case "reduced" -> readWords("/dict2/remaining-solutions.txt");
+            case "huge" -> readWords("/dict2/big-dict-energy.txt");
+            case "iceland" -> readWords("/dict2/iceland.txt");
+            default -> readWords("/dict2/enable1.txt");
+        };
+        fishing = wordList.equals("simple") || wordList.equals("reduced") ? readWords("/dict2/enable1.txt") : primary;
+
+        List<Word> guesses = wordList.equals("iceland") ? ICELANDIC_GUESSES.stream().map(Word::new).toList() : GUESSES;
+        restrictions = restrictionsAt(guesses, stage);
+        restrictionString = restrictions.toCanonicalString();
+        nextGuess = guesses.get(guessesMade(stage));
+
+        service = new WordCalculationService(WordCalculationConfig.OPTIMAL_MEAN);
+        containedWords = service.findMatchingWords(primary, restrictions);
+        positionCounts = service.calculateCharacterCountsByPosition(containedWords);
+    }
+
+    /**
+     * Number of guesses made before this stage
+     */
+    static int guessesMade(String stage) {
+        return switch(stage) {
+            case "early" -> 0;
+            case "mid" -> 1;
+            case "late" -> 2;
+            default -> throw new IllegalArgumentException("Unknown stage " + stage);
+        };
+    }
+
+    /**
+     * What the guesses made before this stage revealed about the solution
+     */
+    static WordRestrictions restrictionsAt(String stage) {
+        return restrictionsAt(GUESSES, stage);
+    }
+
+    // the last guess is the solution
+    private static WordRestrictions restrictionsAt(List<Word> guesses, String stage) {
+        WordRestrictions restrictions = WordRestrictions.noRestrictions();
+        for(Word guess : guesses.subList(0, guessesMade(stage))) {
+            restrictions = WordRestrictions.generateRestrictions(guesses.get(guesses.size() - 1), guess, restrictions);
+        }
+        return restrictions;
+    }
+
+    static Word nextGuess(String stage) {
+        return GUESSES.get(guessesMade(stage));
+    }
+
+    /**
+     * Words of the given length from a dictionary resource, indexed by a {@link Dictionary}
+     */
+    static Set<Word> readWords(String path, int length) {
+        return readDictionary(path, l -> l == length).wordsOfLength(length);
+    }
+
+    private static Set<Word> readWords(String path) {
+        return readWords(path, SOLUTION.getLength());
+    }
+
+    static Dictionary readDictionary(String path, IntPredicate lengths) {
+        Map<Integer, Set<Word>> words = new HashMap<>();
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(GameState.class.getResourceAsStream(path), StandardCharsets.UTF_8))) {
+            String word;
+            while((word = reader.readLine()) != null) {
+                if(lengths.test(word.length())) {
+                    Alphabet.register(word);
+                    words.computeIfAbsent(word.length(), l -> new TreeSet<>()).add(new Word(word));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + path, e);
+        }
+        return new Dictionary(words);
+    }
+}
@@ -0,0 +1,61 @@
+package com.appsoil.solvle.benchmark;
+
+import com.appsoil.solvle.data.PartitionStats;
+import com.appsoil.solvle.data.PositionLetterCounts;
+import com.appsoil.solvle.data.SharedPositions;
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.data.WordFrequencyScore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The steps of a word analysis, each on the same game state a request at that stage of the game would see
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordCalculationBenchmark {
+
+    // number of fishing words SolvleService keeps
+    private static final int FISHING_WORD_SIZE = 200;
+
+    @Benchmark
+    public Set<Word> findMatchingWords(GameState game) {
+        return game.service.findMatchingWords(game.primary, game.restrictions);
+    }
+
+    @Benchmark
+    public PositionLetterCounts calculateCharacterCountsByPosition(GameState game) {
+        return game.service.calculateCharacterCountsByPosition(game.containedWords);
+    }
+
+    /**
+     * Scores every word of the fishing set by position, which calls calculateFreqScoreByPosition once per word
+     */
+    @Benchmark
+    public Set<WordFrequencyScore> calculateFishingWordsByPosition(GameState game) {
+        return game.service.calculateFishingWordsByPosition(game.fishing, game.positionCounts, game.containedWords,
+                FISHING_WORD_SIZE, game.restrictions, new HashMap<>());
+    }
+
+    @Benchmark
+    public PartitionStats getPartitionStatsForWord(GameState game) {
+        return game.service.getPartitionStatsForWord(game.restrictions, game.containedWords, game.nextGuess);
+    }
+
+    @Benchmark
+    public SharedPositions findSharedWordRestrictions(GameState game) {
+        return game.service.findSharedWordRestrictions(game.containedWords);
+    }
+}
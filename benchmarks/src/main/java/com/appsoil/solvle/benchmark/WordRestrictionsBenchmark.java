@@ -0,0 +1,62 @@
+package com.appsoil.solvle.benchmark;
+
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.data.WordRestrictions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing restriction strings from requests, and applying a guess to restrictions as the solvers do. Neither depends
+ * on a word list, so only the stage of the game varies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordRestrictionsBenchmark {
+
+    @Param({"early", "mid", "late"})
+    public String stage;
+
+    private WordRestrictions restrictions;
+    private String restrictionString;
+    private Word nextGuess;
+
+    @Setup
+    public void setUp() {
+        restrictions = GameState.restrictionsAt(stage);
+        restrictionString = restrictions.toCanonicalString();
+        nextGuess = GameState.nextGuess(stage);
+    }
+
+    @Benchmark
+    public WordRestrictions parse() {
+        return new WordRestrictions(restrictionString);
+    }
+
+    /**
+     * Parsing and re-serializing, as every analysis request does to build its cache key
+     */
+    @Benchmark
+    public String canonicalize() {
+        return WordRestrictions.canonicalize(restrictionString);
+    }
+
+    @Benchmark
+    public WordRestrictions generateRestrictions() {
+        return WordRestrictions.generateRestrictions(GameState.SOLUTION, nextGuess, restrictions);
+    }
+}
@@ -0,0 +1,155 @@
+package com.appsoil.solvle.config;
+
+import com.appsoil.solvle.controller.KnownPositionDTO;
+import com.appsoil.solvle.controller.SolvleDTO;
+import com.appsoil.solvle.data.Alphabet;
+import com.appsoil.solvle.data.WordFrequencyScore;
+import com.appsoil.solvle.data.WordRestrictions;
+import com.appsoil.solvle.service.CandidateAnalysis;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Result caches, bounded by the approximate heap each entry holds. Caffeine evicts by frequency and recency of use,
+ * so popular restriction strings survive while one-off requests age out, and no cache is ever cleared all at once.
+ */
+@Configuration
+@Log4j2
+public class CacheConfig {
+
+    // rough per-object costs on a 64-bit JVM with compressed oops, only used to weigh entries against each other
+    private static final int OBJECT_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int SET_ENTRY_BYTES = 40;
+    private static final int SCORE_BYTES = 32;
+    private static final int STRING_BYTES = 40;
+    private static final int MAP_ENTRY_BYTES = 64;
+    private static final int PARTITION_STATS_BYTES = 48;
+    private static final int COUNTS_ROW_BYTES = OBJECT_BYTES + Alphabet.SLOTS * Integer.BYTES;
+
+    @Value("${solvle.cache.valid-words.max-size:256MB}")
+    private DataSize validWordsMaxSize;
+
+    @Value("${solvle.cache.valid-words.expire-after-access:PT12H}")
+    private Duration validWordsExpiry;
+
+    @Value("${solvle.cache.word-score.max-size:32MB}")
+    private DataSize wordScoreMaxSize;
+
+    @Value("${solvle.cache.word-score.expire-after-access:PT1H}")
+    private Duration wordScoreExpiry;
+
+    @Value("${solvle.cache.candidates.max-size:128MB}")
+    private DataSize candidatesMaxSize;
+
+    @Value("${solvle.cache.candidates.expire-after-access:PT1H}")
+    private Duration candidatesExpiry;
+
+    @Bean
+    CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache("validWords", boundedCache(validWordsMaxSize, validWordsExpiry).build());
+        cacheManager.registerCustomCache("wordScore", boundedCache(wordScoreMaxSize, wordScoreExpiry).build());
+        // anything else asking for a cache gets a small entry-bounded one rather than an unbounded map
+        cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(10_000).recordStats());
+        log.info("Caching validWords up to {} for {}, wordScore up to {} for {}", validWordsMaxSize, validWordsExpiry, wordScoreMaxSize, wordScoreExpiry);
+        return cacheManager;
+    }
+
+    /**
+     * Settings for the transposition table of candidate analyses kept by SolvleService. Its entries grow as they are
+     * used, so the service asks the cache to weigh an entry again whenever it stores something new.
+     */
+    @Bean
+    Caffeine<Object, Object> candidateCacheBuilder() {
+        log.info("Caching candidate analyses up to {} for {}", candidatesMaxSize, candidatesExpiry);
+        return boundedCache(candidatesMaxSize, candidatesExpiry);
+    }
+
+    /**
+     * Keys restriction-based results by the canonical form of the restriction string in the first parameter, so
+     * differently ordered or redundant spellings of the same knowledge share one cache entry.
+     */
+    @Bean
+    KeyGenerator canonicalRestrictionKeyGenerator() {
+        return (target, method, params) -> {
+            Object[] key = params.clone();
+            if(key.length > 0 && key[0] instanceof String restrictionString) {
+                key[0] = WordRestrictions.canonicalize(restrictionString.toLowerCase());
+            }
+            return SimpleKeyGenerator.generateKey(key);
+        };
+    }
+
+    private Caffeine<Object, Object> boundedCache(DataSize maxSize, Duration expireAfterAccess) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((key, value) -> weigh(key) + weigh(value))
+                .recordStats();
+        if(!expireAfterAccess.isZero() && !expireAfterAccess.isNegative()) {
+            builder.expireAfterAccess(expireAfterAccess);
+        }
+        return builder;
+    }
+
+    /**
+     * Approximate retained size of a cache key or value in bytes
+     */
+    static int weigh(Object o) {
+        if(o instanceof SolvleDTO dto) {
+            return OBJECT_BYTES + 7 * REFERENCE_BYTES
+                    + weigh(dto.restrictionString())
+                    + weighScores(dto.wordList())
+                    + weighScores(dto.fishingWords())
+                    + weighScores(dto.bestWords())
+                    + (dto.wordsWithCharacter() == null ? 0 : dto.wordsWithCharacter().size() * MAP_ENTRY_BYTES)
+                    + (dto.knownPositions() == null ? 0 : dto.knownPositions().stream().mapToInt(CacheConfig::weigh).sum());
+        } else if(o instanceof KnownPositionDTO position) {
+            return OBJECT_BYTES + 3 * REFERENCE_BYTES
+                    + weigh(position.position())
+                    + (position.words() == null ? 0 : position.words().stream().mapToInt(word -> SET_ENTRY_BYTES + weigh(word)).sum())
+                    + weighScores(position.recommendations());
+        } else if(o instanceof CandidateAnalysis analysis) {
+            return OBJECT_BYTES + 7 * REFERENCE_BYTES
+                    + analysis.analyses().stream().mapToInt(dto -> MAP_ENTRY_BYTES + weigh(dto)).sum()
+                    + analysis.partitionCount() * (MAP_ENTRY_BYTES + STRING_BYTES + PARTITION_STATS_BYTES)
+                    + analysis.bonusCount() * MAP_ENTRY_BYTES
+                    + analysis.countedPositions() * COUNTS_ROW_BYTES;
+        } else if(o instanceof CandidateAnalysis.Key key) {
+            // the member bits of the fingerprint dominate, the restrictions are a few letters
+            return OBJECT_BYTES + 4 * REFERENCE_BYTES
+                    + OBJECT_BYTES + key.candidates().indexSize() / Byte.SIZE
+                    + (key.requiredLetters().size() + key.letterPositions().size()) * MAP_ENTRY_BYTES
+                    + OBJECT_BYTES + 8 * REFERENCE_BYTES;
+        } else if(o instanceof SimpleKey key) {
+            // the key holds the same parameters the method was called with, which SimpleKey does not expose
+            return OBJECT_BYTES + weigh(key.toString());
+        } else if(o instanceof String string) {
+            return STRING_BYTES + string.length();
+        }
+        return OBJECT_BYTES + 8 * REFERENCE_BYTES;
+    }
+
+    private static int weighScores(Collection<WordFrequencyScore> scores) {
+        if(scores == null) {
+            return 0;
+        }
+        int weight = 0;
+        for(WordFrequencyScore score : scores) {
+            weight += SET_ENTRY_BYTES + SCORE_BYTES + weigh(score.word());
+        }
+        return weight;
+    }
+}
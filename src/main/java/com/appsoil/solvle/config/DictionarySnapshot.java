@@ -0,0 +1,221 @@
+package com.appsoil.solvle.config;
+
+import com.appsoil.solvle.data.Alphabet;
+import com.appsoil.solvle.data.Word;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Compact binary copy of a parsed dictionary resource, so later startups can memory-map the words instead of
+ * parsing and sorting the text file again.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   int    magic, int version
+ *   int    stamp length, byte[] stamp of the source      (snapshot is rebuilt if the source changes)
+ *   int    number of letters, char letters in {@link Alphabet} index order when the letter masks were written
+ *   int    number of length buckets
+ *   per bucket:
+ *     int  word length, int word count
+ *     char word arena, count * length chars in alphabetical order
+ *     long letter mask of each word, in the same order
+ * </pre>
+ *
+ * The stamp is the SHA-256 the build writes next to each dictionary as a .sha256 resource, so checking a snapshot
+ * does not read the words. A resource without one, such as one outside the build, is hashed instead.
+ */
+@Log4j2
+public final class DictionarySnapshot {
+
+    private static final int MAGIC = 0x534c5644; // SLVD
+    private static final int VERSION = 4;
+    private static final String HASH_ALGORITHM = "SHA-256";
+    static final String STAMP_SUFFIX = ".sha256";
+
+    private DictionarySnapshot() {}
+
+    /**
+     * Reads the snapshot for a resource if one exists and was built from the same version of the resource.
+     * @param lengths Word lengths to read, other buckets are skipped without creating their words
+     * @return words by size in alphabetical order, or null if the snapshot is missing or stale
+     */
+    public static Map<Integer, Set<Word>> read(Path snapshot, URL resource, IntPredicate lengths) {
+        if(!Files.isReadable(snapshot)) {
+            return null;
+        }
+        try(FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.info("Ignoring snapshot {} with unknown format", snapshot);
+                return null;
+            }
+            byte[] stamp = new byte[buffer.getInt()];
+            buffer.get(stamp);
+            if(!new String(stamp, StandardCharsets.US_ASCII).equals(sourceStamp(resource))) {
+                log.info("Ignoring stale snapshot {}", snapshot);
+                return null;
+            }
+
+            // the masks are only usable if every letter still has the same index, which depends on load order
+            char[] letters = new char[buffer.getInt()];
+            buffer.asCharBuffer().get(letters);
+            buffer.position(buffer.position() + letters.length * Character.BYTES);
+            Alphabet.register(CharBuffer.wrap(letters));
+            boolean sameIndexes = true;
+            for(int i = 0; i < letters.length; i++) {
+                sameIndexes &= Alphabet.indexOf(letters[i]) == i;
+            }
+
+            Map<Integer, Set<Word>> dict = new HashMap<>();
+            int buckets = buffer.getInt();
+            for(int b = 0; b < buckets; b++) {
+                int length = buffer.getInt();
+                int count = buffer.getInt();
+                if(!lengths.test(length)) {
+                    buffer.position(buffer.position() + count * (length * Character.BYTES + Long.BYTES));
+                    continue;
+                }
+
+                CharBuffer arena = buffer.slice(buffer.position(), count * length * Character.BYTES).asCharBuffer();
+                buffer.position(buffer.position() + count * length * Character.BYTES);
+
+                List<Word> words = new ArrayList<>(count);
+                char[] chars = new char[length];
+                for(int i = 0; i < count; i++) {
+                    arena.get(chars);
+                    long letterMask = buffer.getLong();
+                    words.add(sameIndexes ? new Word(new String(chars), i + 1, letterMask) : new Word(new String(chars), i + 1));
+                }
+                dict.put(length, new ListBackedWordSet(words));
+            }
+            return dict;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to read dictionary snapshot {}, falling back to the text resource", snapshot, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the parsed dictionary. Failures are logged, since the snapshot is only an optimization.
+     * @param dict Words by size, each bucket already in alphabetical order
+     */
+    public static void write(Path snapshot, URL resource, Map<Integer, Set<Word>> dict) {
+        try {
+            Files.createDirectories(snapshot.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(snapshot.toAbsolutePath().getParent(), snapshot.getFileName().toString(), ".tmp");
+            byte[] stamp = sourceStamp(resource).getBytes(StandardCharsets.US_ASCII);
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(stamp.length);
+                out.write(stamp);
+                String letters = Alphabet.letters();
+                out.writeInt(letters.length());
+                out.writeChars(letters);
+                out.writeInt(dict.size());
+                for(Map.Entry<Integer, Set<Word>> bucket : dict.entrySet()) {
+                    out.writeInt(bucket.getKey());
+                    out.writeInt(bucket.getValue().size());
+                    for(Word word : bucket.getValue()) {
+                        out.writeChars(word.word());
+                    }
+                    for(Word word : bucket.getValue()) {
+                        out.writeLong(word.letterMask());
+                    }
+                }
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote dictionary snapshot {}", snapshot);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to write dictionary snapshot {}", snapshot, e);
+        }
+    }
+
+    /**
+     * The hex SHA-256 of the resource, read from the stamp the build wrote next to it when there is one
+     */
+    static String sourceStamp(URL resource) throws IOException {
+        try(InputStream in = URI.create(resource.toExternalForm() + STAMP_SUFFIX).toURL().openStream()) {
+            // the stamp may be followed by a newline or the file name
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII).trim().split("\\s+")[0].toLowerCase();
+        } catch (FileNotFoundException e) {
+            log.debug("No build stamp for {}, hashing its content", resource);
+            return HexFormat.of().formatHex(contentHash(resource));
+        }
+    }
+
+    /**
+     * Hashes the content of the resource. Unlike its length and modification time, this only changes when the words
+     * do, and it is the same for every copy of the resource, such as the one packaged in a jar.
+     */
+    static byte[] contentHash(URL resource) throws IOException {
+        try(InputStream in = resource.openStream()) {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            byte[] chunk = new byte[64 * 1024];
+            for(int read = in.read(chunk); read >= 0; read = in.read(chunk)) {
+                digest.update(chunk, 0, read);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * Read-only set view over words that are already unique and sorted, avoiding the cost of hashing or
+     * re-sorting them before the Dictionary indexes them.
+     */
+    private static final class ListBackedWordSet extends AbstractSet<Word> {
+        private final List<Word> words;
+
+        ListBackedWordSet(List<Word> words) {
+            this.words = words;
+        }
+
+        @Override
+        public Iterator<Word> iterator() {
+            return words.iterator();
+        }
+
+        @Override
+        public int size() {
+            return words.size();
+        }
+
+        @Override
+        public Object[] toArray() {
+            return words.toArray();
+        }
+
+        @Override
+        public <T> T[] toArray(T[] a) {
+            return words.toArray(a);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.appsoil.solvle.config;
+
+import com.appsoil.solvle.service.GameSessionService;
+import com.appsoil.solvle.service.PlayoutJobService;
+import com.appsoil.solvle.service.SingleFlight;
+import com.appsoil.solvle.service.SolvleService;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+import java.util.Set;
+
+/**
+ * Metrics published on /actuator/prometheus, on top of the ones Spring Boot provides. The validWords and wordScore
+ * caches are registered with the CacheManager, so Spring Boot already publishes their hits, misses and evictions.
+ *
+ * Request parameters used as tags are reduced to a small set of known values, so a client sending arbitrary
+ * parameters cannot create unbounded numbers of series.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final Set<String> WORD_LISTS = Set.of("simple", "reduced", "big", "huge", "iceland");
+    private static final int MAX_WORD_LENGTH = 15;
+    private static final String NONE = "none";
+    private static final String OTHER = "other";
+
+    /**
+     * Adds the word list, word length and hard mode of a request to the tags of http.server.requests
+     */
+    @Bean
+    ServerRequestObservationConvention solvleRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                HttpServletRequest request = context.getCarrier();
+                return super.getLowCardinalityKeyValues(context).and(
+                        KeyValue.of("wordList", wordListTag(request.getParameter("wordList"))),
+                        KeyValue.of("wordLength", wordLengthTag(request.getParameter("wordLength"))),
+                        KeyValue.of("hardMode", hardModeTag(request.getParameter("hardMode"))));
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder solvleMetrics(SolvleService solvleService, GameSessionService gameSessionService, PlayoutJobService playoutJobService) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, solvleService.getCandidateCache(), "candidates");
+            CaffeineCacheMetrics.monitor(registry, gameSessionService.getSessionCache(), "sessions");
+            CaffeineCacheMetrics.monitor(registry, playoutJobService.getJobCache(), "playouts");
+
+            Gauge.builder("solvle.analyses.in.flight", solvleService, SolvleService::getAnalysesInFlight)
+                    .description("Word analyses being calculated, including those of playouts and solvers")
+                    .register(registry);
+            Gauge.builder("solvle.solves.in.flight", solvleService, SolvleService::getDictionarySolvesInFlight)
+                    .description("Dictionary solves running")
+                    .register(registry);
+            Gauge.builder("solvle.playouts.in.flight", playoutJobService, PlayoutJobService::getRunningCount)
+                    .description("Playout jobs running")
+                    .register(registry);
+            Gauge.builder("solvle.playouts.queued", playoutJobService, PlayoutJobService::getQueuedCount)
+                    .description("Playout jobs waiting for a worker")
+                    .register(registry);
+
+            bindFlights(registry, "analysis", solvleService.getAnalysisFlights());
+            bindFlights(registry, "score", solvleService.getScoreFlights());
+        };
+    }
+
+    private static void bindFlights(MeterRegistry registry, String computation, SingleFlight<?, ?> flights) {
+        Gauge.builder("solvle.computations.in.flight", flights, SingleFlight::inFlight)
+                .description("Uncached calculations running, each shared by every request for the same key")
+                .tag("computation", computation)
+                .register(registry);
+        FunctionCounter.builder("solvle.computations.coalesced", flights, SingleFlight::coalesced)
+                .description("Requests that waited for a running calculation instead of starting their own")
+                .tag("computation", computation)
+                .register(registry);
+    }
+
+    /**
+     * Tags for a request's word list, word length and hard mode setting
+     */
+    public static Tags requestTags(String wordList, int wordLength, boolean hardMode) {
+        return Tags.of("wordList", wordListTag(wordList),
+                "wordLength", wordLengthTag(String.valueOf(wordLength)),
+                "hardMode", String.valueOf(hardMode));
+    }
+
+    static String wordListTag(String wordList) {
+        if(wordList == null) {
+            return NONE;
+        }
+        return WORD_LISTS.contains(wordList) ? wordList : OTHER;
+    }
+
+    static String wordLengthTag(String wordLength) {
+        if(wordLength == null) {
+            return NONE;
+        }
+        try {
+            int length = Integer.parseInt(wordLength);
+            return length > 0 && length <= MAX_WORD_LENGTH ? String.valueOf(length) : OTHER;
+        } catch (NumberFormatException e) {
+            return OTHER;
+        }
+    }
+
+    static String hardModeTag(String hardMode) {
+        if(hardMode == null) {
+            return NONE;
+        }
+        return hardMode.equalsIgnoreCase("true") || hardMode.equalsIgnoreCase("false") ? hardMode.toLowerCase() : OTHER;
+    }
+}
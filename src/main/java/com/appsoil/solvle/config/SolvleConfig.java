@@ -1,33 +1,70 @@
 package com.appsoil.solvle.config;
 
+import com.appsoil.solvle.data.Alphabet;
 import com.appsoil.solvle.data.Dictionary;
+import com.appsoil.solvle.data.DictionaryEvictedEvent;
 import com.appsoil.solvle.data.Word;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.TreeSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntPredicate;
 
 @Configuration
 @Log4j2
 public class SolvleConfig {
 
+    // directory for binary dictionary snapshots, set it blank to always parse the text resources
+    @Value("${solvle.dictionary.snapshot-dir:${user.home}/.solvle/snapshots}")
+    private String snapshotDir;
+
+    // lazily loaded word lengths that go unused this long are released, zero keeps them forever
+    @Value("${solvle.dictionary.evict-after:PT30M}")
+    private Duration evictAfter;
+
+    private final List<Dictionary> lazyDictionaries = new CopyOnWriteArrayList<>();
+    private final ApplicationEventPublisher eventPublisher;
+
+    // shut down with the context rather than exposed as a bean, which would replace Spring Boot's task executor
+    private final ExecutorService dictionaryLoader = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "dictionary-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SolvleConfig(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
     @Bean(name = "bigDictionary")
     Dictionary getBigDictionary() {
-        return readResourceToDictionary("/dict2/enable1.txt");
+        // 5-letter words are used for fishing on every simple and reduced request, other lengths are rare
+        return lazyDictionary("/dict2/enable1.txt", Set.of(5));
     }
 
     @Bean(name = "hugeDictionary")
     Dictionary getHugeDictionary() {
-        return readResourceToDictionary("/dict2/big-dict-energy.txt");
+        return lazyDictionary("/dict2/big-dict-energy.txt", Set.of());
     }
 
     @Bean(name = "simpleDictionary")
@@ -37,7 +74,7 @@ public class SolvleConfig {
 
     @Bean(name = "icelandicDictionary")
     Dictionary getIcelandicDictionr() {
-        return readResourceToDictionary("/dict2/iceland.txt");
+        return lazyDictionary("/dict2/iceland.txt", Set.of());
     }
 
     @Bean(name = "reducedDictionary")
@@ -45,7 +82,57 @@ public class SolvleConfig {
         return readResourceToDictionary("/dict2/remaining-solutions.txt");
     }
 
+    @Scheduled(fixedDelayString = "${solvle.dictionary.eviction-check:PT5M}")
+    void evictIdleDictionaries() {
+        if(!evictAfter.isZero() && !evictAfter.isNegative()) {
+            // anything derived from the released words is dropped, since a reload indexes new ones
+            lazyDictionaries.forEach(dictionary -> dictionary.evictIdle(evictAfter)
+                    .forEach(words -> eventPublisher.publishEvent(new DictionaryEvictedEvent(dictionary.name(), words))));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dictionaryLoader.shutdownNow();
+    }
+
+    private Dictionary lazyDictionary(String path, Set<Integer> pinnedLengths) {
+        Dictionary dictionary = Dictionary.lazy(path, length -> readResource(path, l -> l == length).get(length), dictionaryLoader, pinnedLengths);
+        lazyDictionaries.add(dictionary);
+        return dictionary;
+    }
+
     private Dictionary readResourceToDictionary(String path) {
+        return new Dictionary(readResource(path, length -> true));
+    }
+
+    /**
+     * Reads the requested word lengths from the resource's memory-mapped binary snapshot when a current one exists,
+     * otherwise parses the text resource and writes a snapshot for next time. Without a snapshot directory only the
+     * requested lengths are parsed.
+     */
+    private Map<Integer, Set<Word>> readResource(String path, IntPredicate lengths) {
+        URL resource = this.getClass().getResource(path);
+        Path snapshot = snapshotDir.isBlank() ? null : Path.of(snapshotDir, Path.of(path).getFileName() + ".bin");
+
+        if(snapshot != null) {
+            Map<Integer, Set<Word>> dict = DictionarySnapshot.read(snapshot, resource, lengths);
+            if(dict != null) {
+                log.info("Read {} words from snapshot {}", dict.values().stream().mapToInt(Set::size).sum(), snapshot);
+                return dict;
+            }
+        }
+
+        // a snapshot holds every length, so the whole resource has to be parsed once to write it
+        Map<Integer, Set<Word>> dict = parseResource(path, snapshot == null ? lengths : length -> true);
+        if(snapshot != null) {
+            DictionarySnapshot.write(snapshot, resource, dict);
+            dict.keySet().removeIf(length -> !lengths.test(length));
+        }
+        return dict;
+    }
+
+    private Map<Integer, Set<Word>> parseResource(String path, IntPredicate lengths) {
         InputStream is = this.getClass().getResourceAsStream(path);
         Map<Integer, Set<Word>> dict = new HashMap<>();
         BufferedReader br = new BufferedReader(new InputStreamReader(is));
@@ -54,10 +141,13 @@ public class SolvleConfig {
         try {
             String word = br.readLine();
             while (word != null) {
-                if (!dict.containsKey(word.length())) {
-                    dict.put(word.length(), new TreeSet<>()); //alphabetized
+                if (lengths.test(word.length())) {
+                    if (!dict.containsKey(word.length())) {
+                        dict.put(word.length(), new TreeSet<>()); //alphabetized
+                    }
+                    Alphabet.register(word);
+                    dict.get(word.length()).add(new Word(word));
                 }
-                dict.get(word.length()).add(new Word(word));
                 word = br.readLine();
                 if (count++ % 10000 == 0) {
                     log.info(count - 1 + " read...");
@@ -68,6 +158,6 @@ public class SolvleConfig {
         }
 
         log.info("Read " + count + " words from " + path);
-        return new Dictionary(dict);
+        return dict;
     }
 }
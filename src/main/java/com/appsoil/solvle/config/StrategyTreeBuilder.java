@@ -0,0 +1,64 @@
+package com.appsoil.solvle.config;
+
+import com.appsoil.solvle.service.StrategyTreeService;
+import com.appsoil.solvle.service.WordCalculationConfig;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.TreeSet;
+
+/**
+ * Offline build of the preset strategy trees. Starting the application with
+ * --solvle.strategy.build=simple:5,reduced:5 builds a tree for every preset config for each of those word lists and
+ * lengths into solvle.strategy.dir, and then exits instead of serving requests. The exit code is non-zero if any tree
+ * could not be built or written.
+ */
+@Component
+@ConditionalOnProperty("solvle.strategy.build")
+@Log4j2
+public class StrategyTreeBuilder implements ApplicationRunner {
+
+    private final StrategyTreeService strategyTreeService;
+    private final ApplicationContext context;
+    private final String targets;
+    private final String strategyDir;
+
+    public StrategyTreeBuilder(StrategyTreeService strategyTreeService, ApplicationContext context, @Value("${solvle.strategy.build}") String targets,
+                               @Value("${solvle.strategy.dir:}") String strategyDir) {
+        this.strategyTreeService = strategyTreeService;
+        this.context = context;
+        this.targets = targets;
+        this.strategyDir = strategyDir;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try {
+            if(strategyDir.isBlank()) {
+                throw new IllegalStateException("solvle.strategy.dir must be set to build strategy trees");
+            }
+            for(String target : targets.split(",")) {
+                String[] parts = target.trim().split(":");
+                String wordList = parts[0];
+                int length = parts.length > 1 ? Integer.parseInt(parts[1]) : 5;
+                for(String preset : new TreeSet<>(WordCalculationConfig.DEFAULT_CONFIGS.keySet())) {
+                    strategyTreeService.build(preset, wordList, length);
+                }
+            }
+            log.info("Built strategy trees for {}", targets);
+        } catch (RuntimeException e) {
+            // scripts building trees need to see the failure in the exit code
+            log.error("Could not build strategy trees for {}", targets, e);
+            exitCode = 1;
+        }
+        int status = exitCode;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+}
@@ -0,0 +1,23 @@
+package com.appsoil.solvle.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Usage counters of a single result cache since startup
+ * @param entries       Number of entries currently cached
+ * @param weightBytes   Approximate heap held by the cached entries, or 0 if the cache is bounded by entry count
+ * @param hits          Lookups answered from the cache
+ * @param misses        Lookups that had to be calculated
+ * @param hitRate       Hits as a fraction of all lookups
+ * @param evictions     Entries removed to stay within the size bound or because they expired
+ * @param evictedBytes  Approximate heap released by evictions
+ */
+public record CacheStatsDTO(long entries, long weightBytes, long hits, long misses, double hitRate, long evictions, long evictedBytes) {
+
+    public static CacheStatsDTO from(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        long weight = cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+        return new CacheStatsDTO(cache.estimatedSize(), weight, stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount(), stats.evictionWeight());
+    }
+}
@@ -0,0 +1,91 @@
+package com.appsoil.solvle.controller;
+
+import com.appsoil.solvle.service.GameSession;
+import com.appsoil.solvle.service.GameSessionService;
+import com.appsoil.solvle.service.WordCalculationConfig;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/solvle/session")
+@Log4j2
+public class GameSessionController {
+
+    private final GameSessionService gameSessionService;
+
+    public GameSessionController(GameSessionService gameSessionService) {
+        this.gameSessionService = gameSessionService;
+    }
+
+    @PostMapping
+    public GameSessionDTO createSession(@RequestParam(defaultValue= "5") int wordLength,
+                                        @RequestParam(defaultValue = "simple") String wordList,
+                                        @RequestParam(defaultValue = "1") double rightLocationMultiplier,
+                                        @RequestParam(defaultValue = "1") double uniquenessMultiplier,
+                                        @RequestParam(defaultValue = "0.0") double viableWordPreference,
+                                        @RequestParam(defaultValue = "0") double locationAdjustmentScale,
+                                        @RequestParam(defaultValue = "0") double uniqueAdjustmentScale,
+                                        @RequestParam(defaultValue = "0") double viableWordAdjustmentScale,
+                                        @RequestParam(defaultValue = "1") double vowelMultiplier,
+                                        @RequestParam(defaultValue = "0") double rutBreakMultiplier,
+                                        @RequestParam(defaultValue = "0") int rutBreakThreshold,
+                                        @RequestParam(defaultValue = "50") int partitionThreshold,
+                                        @RequestParam(defaultValue = "false") boolean hardMode
+    ) {
+        WordCalculationConfig wordCalculationConfig = SolvleController.wordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, viableWordPreference,
+                locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier, rutBreakMultiplier, rutBreakThreshold,
+                partitionThreshold, hardMode);
+        log.info("Session requested for {}-letter {} words with configuration {}", wordLength, wordList, wordCalculationConfig);
+        GameSession session;
+        try {
+            session = gameSessionService.create(wordLength, wordList.toLowerCase(), wordCalculationConfig);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return toDTO(session);
+    }
+
+    @GetMapping("/{id}")
+    public GameSessionDTO getSession(@PathVariable String id) {
+        return toDTO(findSession(id));
+    }
+
+    @PostMapping("/{id}/guess")
+    public GameSessionDTO guess(@PathVariable String id, @RequestBody GuessDTO guess) {
+        LocalDateTime start = LocalDateTime.now();
+        GameSession session = findSession(id);
+        if(guess.guess() == null || guess.feedback() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A guess and its feedback are required");
+        }
+        try {
+            gameSessionService.guess(session, guess.guess().toLowerCase(), guess.feedback());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        GameSessionDTO result = toDTO(session);
+        log.info("Guess {} for session {} took {}", guess.guess(), id, Duration.between(start, LocalDateTime.now()));
+        return result;
+    }
+
+    @DeleteMapping("/{id}")
+    public void endSession(@PathVariable String id) {
+        gameSessionService.end(id);
+    }
+
+    private GameSession findSession(String id) {
+        GameSession session = gameSessionService.get(id);
+        if(session == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No session " + id);
+        }
+        return session;
+    }
+
+    private GameSessionDTO toDTO(GameSession session) {
+        return new GameSessionDTO(session.id(), session.wordLength(), session.wordList(), session.guesses(), gameSessionService.analyze(session));
+    }
+}
@@ -0,0 +1,14 @@
+package com.appsoil.solvle.controller;
+
+import java.util.List;
+
+/**
+ * State of a game session
+ * @param id            Session id to use for following guesses
+ * @param wordLength    Length of the solution
+ * @param wordList      Word list the solution is taken from
+ * @param guesses       Guesses made so far, in order
+ * @param analysis      Analysis of the words that can still be the solution
+ */
+public record GameSessionDTO(String id, int wordLength, String wordList, List<String> guesses, SolvleDTO analysis) {
+}
@@ -0,0 +1,9 @@
+package com.appsoil.solvle.controller;
+
+/**
+ * A guess made in a game session
+ * @param guess     The guessed word
+ * @param feedback  One character per letter: 2 or g for the right position, 1 or y for the wrong position, 0, b or . if absent
+ */
+public record GuessDTO(String guess, String feedback) {
+}
@@ -0,0 +1,22 @@
+package com.appsoil.solvle.controller;
+
+import com.appsoil.solvle.data.PlayOut;
+import com.appsoil.solvle.service.PlayoutJob;
+
+import java.util.Set;
+
+/**
+ * State of a playout job
+ * @param id        Job id to poll or cancel
+ * @param status    QUEUED, RUNNING, DONE, CANCELLED or FAILED
+ * @param completed Pool words played out so far
+ * @param total     Pool words to play out, 0 until the job has chosen them
+ * @param result    Playouts sorted by average solve length, once the job is DONE
+ * @param error     Why the job FAILED
+ */
+public record PlayoutJobDTO(String id, PlayoutJob.Status status, int completed, int total, Set<PlayOut> result, String error) {
+
+    static PlayoutJobDTO from(PlayoutJob job) {
+        return new PlayoutJobDTO(job.id(), job.status(), job.progress().completed(), job.progress().total(), job.result(), job.error());
+    }
+}
@@ -1,23 +1,33 @@
 package com.appsoil.solvle.controller;
 
+import com.appsoil.solvle.config.MetricsConfig;
 import com.appsoil.solvle.data.PlayOut;
 import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.service.GameSessionService;
+import com.appsoil.solvle.service.PlayoutJob;
+import com.appsoil.solvle.service.PlayoutJobService;
+import com.appsoil.solvle.service.SingleFlightTimeoutException;
 import com.appsoil.solvle.service.SolvleService;
+import com.appsoil.solvle.service.StrategyTreeService;
 import com.appsoil.solvle.service.WordCalculationConfig;
-import com.appsoil.solvle.service.solvers.RemainingSolver;
-import com.appsoil.solvle.service.solvers.Solver;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
-import static java.time.temporal.ChronoUnit.MINUTES;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/solvle")
@@ -26,15 +36,24 @@ public class SolvleController {
 
     private final SolvleService solvleService;
     private final CacheManager cacheManager;
+    private final GameSessionService gameSessionService;
+    private final StrategyTreeService strategyTreeService;
+    private final PlayoutJobService playoutJobService;
+    private final MeterRegistry meterRegistry;
+
+    // by request tags, which are reduced to a small set of values so this stays small
+    private final Map<Tags, DistributionSummary> candidateSummaries = new ConcurrentHashMap<>();
 
-    private static long requestsSinceLoading;
-    private static final LocalDateTime startTime = LocalDateTime.now();
-    private static LocalDateTime lastRequestLogTime = LocalDateTime.now();
     private static int MAX_PARTITION = 3000;
 
-    public SolvleController(SolvleService solvleService, CacheManager cacheManager) {
+    public SolvleController(SolvleService solvleService, CacheManager cacheManager, GameSessionService gameSessionService,
+                            StrategyTreeService strategyTreeService, PlayoutJobService playoutJobService, MeterRegistry meterRegistry) {
         this.solvleService = solvleService;
         this.cacheManager = cacheManager;
+        this.gameSessionService = gameSessionService;
+        this.strategyTreeService = strategyTreeService;
+        this.playoutJobService = playoutJobService;
+        this.meterRegistry = meterRegistry;
     }
 
     @GetMapping("/{wordRestrictions}")
@@ -55,16 +74,21 @@ public class SolvleController {
                                    ) {
 
         LocalDateTime start = LocalDateTime.now();
-        logRequestsCount(start);
-        WordCalculationConfig wordCalculationConfig =
-                new WordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, Math.min(partitionThreshold, MAX_PARTITION), viableWordPreference)
-                        .withFineTuning(locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier)
-                        .withHardMode(hardMode)
-                        .withRutBreak(rutBreakMultiplier, rutBreakThreshold);
+        WordCalculationConfig wordCalculationConfig = wordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, viableWordPreference,
+                locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier, rutBreakMultiplier, rutBreakThreshold,
+                partitionThreshold, hardMode);
         log.info("Valid words requested with configuration {}", wordCalculationConfig);
-        checkMemory();
-        log.info(cacheManager.getCacheNames());
-        SolvleDTO result = solvleService.getWordAnalysis(wordRestrictions.toLowerCase(), wordLength, wordList, wordCalculationConfig);
+        SolvleDTO result;
+        try {
+            result = solvleService.getWordAnalysis(wordRestrictions.toLowerCase(), wordLength, wordList, wordCalculationConfig);
+        } catch (SingleFlightTimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+        candidateSummaries.computeIfAbsent(MetricsConfig.requestTags(wordList, wordLength, hardMode), tags -> DistributionSummary.builder("solvle.candidates")
+                        .description("Solutions remaining for analysed restrictions")
+                        .tags(tags)
+                        .register(meterRegistry))
+                .record(result.totalWords());
         log.info("Valid words for {} took {}", wordRestrictions, Duration.between(start, LocalDateTime.now()));
         return SolvleDTO.appendRestrictionString(wordRestrictions, result);
     }
@@ -86,19 +110,55 @@ public class SolvleController {
                                      @RequestParam(defaultValue = "false") boolean hardMode
                                      ) {
         LocalDateTime start = LocalDateTime.now();
-        logRequestsCount(start);
-        WordCalculationConfig wordCalculationConfig =
-                new WordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, Math.min(partitionThreshold, MAX_PARTITION), viableWordPreference)
-                        .withFineTuning(locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier)
-                        .withHardMode(hardMode)
-                        .withRutBreak(rutBreakMultiplier, rutBreakThreshold);
+        WordCalculationConfig wordCalculationConfig = wordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, viableWordPreference,
+                locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier, rutBreakMultiplier, rutBreakThreshold,
+                partitionThreshold, hardMode);
         log.info("Word Score requested for {} with configuration {}", wordToScore, wordCalculationConfig);
-        WordScoreDTO result = solvleService.getScore(wordRestrictions.toLowerCase(), wordToScore.toLowerCase(), wordList, wordCalculationConfig);
+        WordScoreDTO result;
+        try {
+            result = solvleService.getScore(wordRestrictions.toLowerCase(), wordToScore.toLowerCase(), wordList, wordCalculationConfig);
+        } catch (SingleFlightTimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
         log.info("Word Score for {} took {}", wordToScore, Duration.between(start, LocalDateTime.now()));
 
         return result;
     }
 
+    @PostMapping("/scores")
+    public Map<String, Map<String, WordScoreDTO>> getWordScores(@RequestBody WordScoreBatchDTO batch,
+                                                               @RequestParam(defaultValue = "simple") String wordList,
+                                                               @RequestParam(defaultValue = "1") double rightLocationMultiplier,
+                                                               @RequestParam(defaultValue = "1") double uniquenessMultiplier,
+                                                               @RequestParam(defaultValue = "0.0") double viableWordPreference,
+                                                               @RequestParam(defaultValue = "0") double locationAdjustmentScale,
+                                                               @RequestParam(defaultValue = "0") double uniqueAdjustmentScale,
+                                                               @RequestParam(defaultValue = "0") double viableWordAdjustmentScale,
+                                                               @RequestParam(defaultValue = "1") double vowelMultiplier,
+                                                               @RequestParam(defaultValue = "0") double rutBreakMultiplier,
+                                                               @RequestParam(defaultValue = "0") int rutBreakThreshold,
+                                                               @RequestParam(defaultValue = "50") int partitionThreshold,
+                                                               @RequestParam(defaultValue = "false") boolean hardMode
+                                                               ) {
+        LocalDateTime start = LocalDateTime.now();
+        WordCalculationConfig wordCalculationConfig = wordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, viableWordPreference,
+                locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier, rutBreakMultiplier, rutBreakThreshold,
+                partitionThreshold, hardMode);
+        try {
+            solvleService.validateScores(batch.restrictions(), batch.words(), wordList);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        Map<String, Map<String, WordScoreDTO>> result;
+        try {
+            result = solvleService.getScores(batch.restrictions(), batch.words(), wordList, wordCalculationConfig);
+        } catch (SingleFlightTimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+        log.info("{} word scores for {} restrictions took {}", batch.words().size(), batch.restrictions().size(), Duration.between(start, LocalDateTime.now()));
+        return result;
+    }
+
     @GetMapping("/{wordRestrictions}/playout")
     public Set<PlayOut> playOutSolution(@PathVariable String wordRestrictions,
                                         @RequestParam(defaultValue= "5") int wordLength,
@@ -116,17 +176,56 @@ public class SolvleController {
                                         @RequestParam(defaultValue = "false") boolean hardMode,
                                         @RequestParam(defaultValue = "0") int guess
     ) {
+        WordCalculationConfig wordCalculationConfig = wordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, viableWordPreference,
+                locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier, rutBreakMultiplier, rutBreakThreshold,
+                partitionThreshold, hardMode);
+        log.info("Playout requested with configuration {}", wordCalculationConfig);
+        return playoutJobService.playOut(wordRestrictions.toLowerCase(), wordLength, wordList, wordCalculationConfig, guess);
+    }
 
+    @PostMapping("/{wordRestrictions}/playout")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public PlayoutJobDTO submitPlayout(@PathVariable String wordRestrictions,
+                                       @RequestParam(defaultValue= "5") int wordLength,
+                                       @RequestParam(defaultValue = "simple") String wordList,
+                                       @RequestParam(defaultValue = "1") double rightLocationMultiplier,
+                                       @RequestParam(defaultValue = "1") double uniquenessMultiplier,
+                                       @RequestParam(defaultValue = "0.0") double viableWordPreference,
+                                       @RequestParam(defaultValue = "0") double locationAdjustmentScale,
+                                       @RequestParam(defaultValue = "0") double uniqueAdjustmentScale,
+                                       @RequestParam(defaultValue = "0") double viableWordAdjustmentScale,
+                                       @RequestParam(defaultValue = "1") double vowelMultiplier,
+                                       @RequestParam(defaultValue = "0") double rutBreakMultiplier,
+                                       @RequestParam(defaultValue = "0") int rutBreakThreshold,
+                                       @RequestParam(defaultValue = "50") int partitionThreshold,
+                                       @RequestParam(defaultValue = "false") boolean hardMode,
+                                       @RequestParam(defaultValue = "0") int guess
+    ) {
+        WordCalculationConfig wordCalculationConfig = wordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, viableWordPreference,
+                locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier, rutBreakMultiplier, rutBreakThreshold,
+                partitionThreshold, hardMode);
+        try {
+            return PlayoutJobDTO.from(playoutJobService.submit(wordRestrictions.toLowerCase(), wordLength, wordList, wordCalculationConfig, guess));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+    }
 
-        logRequestsCount();
-        WordCalculationConfig wordCalculationConfig =
-                new WordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, Math.min(partitionThreshold, MAX_PARTITION), viableWordPreference)
-                        .withFineTuning(locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier)
-                        .withHardMode(hardMode)
-                        .withRutBreak(rutBreakMultiplier, rutBreakThreshold);
-        log.info("Playout requested with configuration {}", wordCalculationConfig);
-        Set<PlayOut> result = solvleService.playOutSolutions(wordRestrictions.toLowerCase(), wordLength, wordList, wordCalculationConfig, guess);
-        return result;
+    @GetMapping("/playout/{id}")
+    public PlayoutJobDTO getPlayout(@PathVariable String id) {
+        return PlayoutJobDTO.from(findPlayout(playoutJobService.get(id), id));
+    }
+
+    @DeleteMapping("/playout/{id}")
+    public PlayoutJobDTO cancelPlayout(@PathVariable String id) {
+        return PlayoutJobDTO.from(findPlayout(playoutJobService.cancel(id), id));
+    }
+
+    private PlayoutJob findPlayout(PlayoutJob job, String id) {
+        if(job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No playout " + id);
+        }
+        return job;
     }
 
     @GetMapping("/solve/{solution}")
@@ -143,45 +242,45 @@ public class SolvleController {
                                     @RequestParam(defaultValue = "0") double rutBreakMultiplier,
                                     @RequestParam(defaultValue = "0") int rutBreakThreshold,
                                     @RequestParam(defaultValue = "50") int partitionThreshold,
-                                    @RequestParam(defaultValue = "false") boolean hardMode
+                                    @RequestParam(defaultValue = "false") boolean hardMode,
+                                    @RequestParam(required = false) String preset
                                     ) {
-        logRequestsCount();
-        WordCalculationConfig wordCalculationConfig =
-                new WordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, Math.min(partitionThreshold, MAX_PARTITION), viableWordPreference)
-                        .withFineTuning(locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier)
-                        .withHardMode(hardMode)
-                        .withRutBreak(rutBreakMultiplier, rutBreakThreshold);
+        // a preset replaces the tuning parameters, and is answered from its strategy tree when there is one
+        WordCalculationConfig wordCalculationConfig = preset == null ? wordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, viableWordPreference,
+                locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier, rutBreakMultiplier, rutBreakThreshold,
+                partitionThreshold, hardMode) : WordCalculationConfig.DEFAULT_CONFIGS.get(preset.toUpperCase());
+        if(wordCalculationConfig == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown preset " + preset);
+        }
         log.info("Solution requested for [{}] with first word [{}] and configuration {}", solution, firstWord, wordCalculationConfig);
-        Solver solver = new RemainingSolver(solvleService, wordCalculationConfig);
-        return solvleService.solveWord(solver, new Word(solution.toLowerCase()), firstWord.toLowerCase(), wordList);
-    }
-
-    private void logRequestsCount() {
-        logRequestsCount(LocalDateTime.now());
+        return strategyTreeService.solveWord(wordCalculationConfig, new Word(solution.toLowerCase()), firstWord.toLowerCase(), wordList);
     }
 
-    private static synchronized void logRequestsCount(LocalDateTime now) {
-        if (requestsSinceLoading++ % 1000 == 0 || MINUTES.between(lastRequestLogTime, now) > 29) {
-            double requestPerHour = (double) requestsSinceLoading * 60 / (double) MINUTES.between(startTime, now);
-            log.info("{} requests made since {} ({} per hour)", requestsSinceLoading, startTime, requestPerHour);
-            lastRequestLogTime = now;
-        }
+    /**
+     * Builds the config described by the tuning parameters every endpoint accepts
+     */
+    static WordCalculationConfig wordCalculationConfig(double rightLocationMultiplier, double uniquenessMultiplier, double viableWordPreference,
+                                                       double locationAdjustmentScale, double uniqueAdjustmentScale, double viableWordAdjustmentScale,
+                                                       double vowelMultiplier, double rutBreakMultiplier, int rutBreakThreshold,
+                                                       int partitionThreshold, boolean hardMode) {
+        return new WordCalculationConfig(rightLocationMultiplier, uniquenessMultiplier, Math.min(partitionThreshold, MAX_PARTITION), viableWordPreference)
+                .withFineTuning(locationAdjustmentScale, uniqueAdjustmentScale, viableWordAdjustmentScale, vowelMultiplier)
+                .withHardMode(hardMode)
+                .withRutBreak(rutBreakMultiplier, rutBreakThreshold);
     }
 
-    private void checkMemory() {
-        long maxMem = Runtime.getRuntime().maxMemory();
-        long totalMem = Runtime.getRuntime().totalMemory();
-        long freeMem = Runtime.getRuntime().freeMemory();
-
-        Cache validWords = cacheManager.getCache("validWords");
-        int validWordsSize = ((Map)validWords.getNativeCache()).size();
-
-        log.info("max({}) total({}) free({}) cachedWords({})", maxMem, totalMem, freeMem, validWordsSize);
-
-        if(validWordsSize > 50000) {
-            log.warn("clearing solvle cache");
-            cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    @GetMapping("/cache/stats")
+    public Map<String, CacheStatsDTO> getCacheStats() {
+        Map<String, CacheStatsDTO> stats = new TreeMap<>();
+        for(String name : cacheManager.getCacheNames()) {
+            if(cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                stats.put(name, CacheStatsDTO.from(cache.getNativeCache()));
+            }
         }
+        stats.put("candidates", CacheStatsDTO.from(solvleService.getCandidateCache()));
+        stats.put("sessions", CacheStatsDTO.from(gameSessionService.getSessionCache()));
+        stats.put("playouts", CacheStatsDTO.from(playoutJobService.getJobCache()));
+        return stats;
     }
 
 }
@@ -0,0 +1,10 @@
+package com.appsoil.solvle.controller;
+
+import java.util.List;
+
+/**
+ * Words to score against restriction states, usually one restriction string and many words or many restriction
+ * strings and one word. Every word is scored against every restriction string.
+ */
+public record WordScoreBatchDTO(List<String> restrictions, List<String> words) {
+}
@@ -0,0 +1,126 @@
+package com.appsoil.solvle.data;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Arrays;
+
+/**
+ * Dense indexes for the letters of every loaded word list, used for letter bitmasks and count tables. Indexes are
+ * shared by all dictionaries so that a letter has the same bit in every {@link Word}. The English and Icelandic
+ * letters are always present, and dictionaries register any other letters their words use while loading, so a new
+ * language only needs a word list. Indexes are never reassigned.
+ *
+ * Both cases of a letter share its index, and the lowercase form is the one registered, so words and restrictions
+ * count the same letters whatever case they are written in instead of falling into {@link #UNKNOWN_INDEX}.
+ *
+ * Registering copies the index table and publishes the copy through a volatile field, after the letter itself, so
+ * a reader on another thread never sees an index without its letter.
+ */
+@Log4j2
+public final class Alphabet {
+
+    // one bit per letter in a long, with the last bit shared by every character that has no index. No restriction
+    // can make that bit available, so words containing those characters are never valid solutions
+    public static final int UNKNOWN_INDEX = Long.SIZE - 1;
+    public static final int SLOTS = UNKNOWN_INDEX + 1;
+
+    private static final String INITIAL_LETTERS = "abcdefghijklmnopqrstuvwxyzáðéíóúýþæö";
+
+    private static volatile byte[] index = unknownIndex();
+    private static volatile String letters = "";
+
+    static {
+        register(INITIAL_LETTERS);
+    }
+
+    private Alphabet() {}
+
+    /**
+     * Assigns an index to every letter of the word that does not have one yet, shared by its upper and lowercase
+     * forms. Characters that are not letters, or letters beyond the last free index, keep sharing
+     * {@link #UNKNOWN_INDEX}.
+     */
+    public static void register(CharSequence word) {
+        byte[] current = index;
+        for(int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if(current[c] == UNKNOWN_INDEX && Character.isLetter(c)) {
+                add(c);
+                current = index;
+            }
+        }
+    }
+
+    private static synchronized void add(char c) {
+        char letter = Character.toLowerCase(c);
+        if(index[c] != UNKNOWN_INDEX) {
+            return;
+        }
+        byte[] next = index.clone();
+        if(next[letter] == UNKNOWN_INDEX) {
+            if(letters.length() == UNKNOWN_INDEX) {
+                log.warn("No letter index left for '{}', words containing it can not be solved", c);
+                return;
+            }
+            next[letter] = (byte) letters.length();
+            letters = letters + letter;
+        }
+        // a few uppercase letters lower to a letter that already has another uppercase form, keep the first one
+        char upper = Character.toUpperCase(letter);
+        if(next[upper] == UNKNOWN_INDEX) {
+            next[upper] = next[letter];
+        }
+        next[c] = next[letter];
+        index = next;
+    }
+
+    /**
+     * Forgets every letter registered after the first {@code size}, for tests that register letters of their own.
+     * Words built while those letters were registered keep their old bits.
+     */
+    static synchronized void truncate(int size) {
+        byte[] next = index.clone();
+        for(int c = 0; c < next.length; c++) {
+            if(next[c] >= size && next[c] != UNKNOWN_INDEX) {
+                next[c] = (byte) UNKNOWN_INDEX;
+            }
+        }
+        index = next;
+        letters = letters.substring(0, Math.min(size, letters.length()));
+    }
+
+    private static byte[] unknownIndex() {
+        byte[] unknown = new byte[Character.MAX_VALUE + 1];
+        Arrays.fill(unknown, (byte) UNKNOWN_INDEX);
+        return unknown;
+    }
+
+    /**
+     * Index of this letter in either case, or UNKNOWN_INDEX if it has not been registered
+     */
+    public static int indexOf(char c) {
+        return index[c];
+    }
+
+    public static char letterAt(int index) {
+        return letters.charAt(index);
+    }
+
+    public static long bit(char c) {
+        return 1L << index[c];
+    }
+
+    /**
+     * Number of registered letters. Every index below this is in use.
+     */
+    public static int size() {
+        return letters.length();
+    }
+
+    /**
+     * Every registered letter in lowercase, in index order
+     */
+    public static String letters() {
+        return letters;
+    }
+}
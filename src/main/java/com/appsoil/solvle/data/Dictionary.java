@@ -1,25 +1,129 @@
 package com.appsoil.solvle.data;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+
+/**
+ * Words of a single word list, bucketed and indexed by length. Buckets are either provided up front or loaded on
+ * first use, in which case concurrent requests for the same bucket share a single load and buckets that have not
+ * been used recently can be evicted and reloaded later.
+ */
+@Log4j2
+public class Dictionary {
+
+    private final String name;
+    private final IntFunction<Set<Word>> loader; // returns the words of one length, or null if there are none
+    private final Executor executor;
+    private final Set<Integer> pinnedLengths;    // never evicted
+    private final Map<Integer, Bucket> buckets = new ConcurrentHashMap<>();
 
-public record Dictionary(Map<Integer, Set<Word>> wordsBySize) {
+    private static final class Bucket {
+        private final CompletableFuture<Set<Word>> words;
+        private volatile long lastAccess = System.nanoTime();
+
+        Bucket(CompletableFuture<Set<Word>> words) {
+            this.words = words;
+        }
+    }
 
+    /**
+     * Creates a dictionary with every bucket already loaded
+     */
     public Dictionary(Map<Integer, Set<Word>> wordsBySize) {
-        //manually pre-alphabetize to save time sorting later
-        Map<Integer, Set<Word>> newDict = new HashMap<>();
-        wordsBySize.forEach((length, words) -> {
-            Set<Word> newWords = new HashSet<>(words.size());
-            int i = 1;
-            for(Word word : words) {
-                word.setOrder(i++);
-                newWords.add(word);
+        this.name = "preloaded";
+        this.loader = length -> null;
+        this.executor = Runnable::run;
+        this.pinnedLengths = Set.copyOf(wordsBySize.keySet());
+        //index each length bucket, which also pre-alphabetizes to save time sorting later
+        wordsBySize.forEach((length, words) -> buckets.put(length, new Bucket(CompletableFuture.completedFuture(index(words)))));
+    }
+
+    private Dictionary(String name, IntFunction<Set<Word>> loader, Executor executor, Set<Integer> pinnedLengths) {
+        this.name = name;
+        this.loader = loader;
+        this.executor = executor;
+        this.pinnedLengths = Set.copyOf(pinnedLengths);
+    }
+
+    /**
+     * Creates a dictionary that loads each length bucket on first use
+     * @param name Name used for logging
+     * @param loader Loads the words of a single length, returning null if there are none
+     * @param executor Executor that runs the loads, so request threads only wait on them
+     * @param pinnedLengths Lengths that are loaded immediately and never evicted
+     */
+    public static Dictionary lazy(String name, IntFunction<Set<Word>> loader, Executor executor, Set<Integer> pinnedLengths) {
+        Dictionary dictionary = new Dictionary(name, loader, executor, pinnedLengths);
+        // started once the dictionary is fully constructed, since the loads run on other threads
+        dictionary.pinnedLengths.forEach(dictionary::wordsOfLength);
+        return dictionary;
+    }
+
+    /**
+     * Returns the indexed words of this length, loading them first if needed. Returns null if there are no words
+     * of this length.
+     */
+    public Set<Word> wordsOfLength(int length) {
+        return preload(length).join();
+    }
+
+    /**
+     * Starts loading the words of this length in the background if they are not already loaded or loading
+     */
+    public CompletableFuture<Set<Word>> preload(int length) {
+        Bucket bucket = buckets.computeIfAbsent(length, l -> new Bucket(CompletableFuture.supplyAsync(() -> load(l), executor)));
+        bucket.lastAccess = System.nanoTime();
+        if(bucket.words.isCompletedExceptionally()) {
+            // let the next caller try again instead of caching the failure
+            buckets.remove(length, bucket);
+        }
+        return bucket.words;
+    }
+
+    private Set<Word> load(int length) {
+        long start = System.nanoTime();
+        Set<Word> words = index(loader.apply(length));
+        log.info("Loaded {} {}-letter words for {} in {}ms", words == null ? 0 : words.size(), length, name, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return words;
+    }
+
+    private static Set<Word> index(Set<Word> words) {
+        return words == null ? null : new IndexedWordSet(new WordIndex(words));
+    }
+
+    /**
+     * Releases loaded buckets that have not been used within the provided duration. Pinned lengths are kept.
+     * @return the words of each released bucket that had any, so their dependents can be released too
+     */
+    public List<Set<Word>> evictIdle(Duration maxIdle) {
+        long cutoff = System.nanoTime() - maxIdle.toNanos();
+        List<Set<Word>> evicted = new ArrayList<>();
+        for(Map.Entry<Integer, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            if(!pinnedLengths.contains(entry.getKey()) && bucket.words.isDone() && bucket.lastAccess - cutoff < 0
+                    && buckets.remove(entry.getKey(), bucket)) {
+                Set<Word> words = bucket.words.isCompletedExceptionally() ? null : bucket.words.join();
+                if(words != null) {
+                    evicted.add(words);
+                }
             }
-            newDict.put(length, newWords);
-        });
-        this.wordsBySize = newDict;
+        }
+        if(!evicted.isEmpty()) {
+            log.info("Evicted {} idle word lengths from {}", evicted.size(), name);
+        }
+        return evicted;
     }
 
+    public String name() {
+        return name;
+    }
 }
@@ -0,0 +1,26 @@
+package com.appsoil.solvle.data;
+
+import java.util.Set;
+
+/**
+ * Published when a {@link Dictionary} releases an idle length bucket. Loading that length again indexes new words,
+ * so anything still holding the released words or keyed by their {@link IndexedWordSet.Fingerprint} should let go.
+ * @param dictionary Name of the dictionary
+ * @param words The released words
+ */
+public record DictionaryEvictedEvent(String dictionary, Set<Word> words) {
+
+    /**
+     * Whether these words are, or were narrowed down from, the released words
+     */
+    public boolean covers(Set<Word> other) {
+        return words instanceof IndexedWordSet released && other instanceof IndexedWordSet indexed && released.index() == indexed.index();
+    }
+
+    /**
+     * Whether this fingerprint identifies a set of the released words
+     */
+    public boolean covers(IndexedWordSet.Fingerprint fingerprint) {
+        return words instanceof IndexedWordSet released && fingerprint.index() == released.index();
+    }
+}
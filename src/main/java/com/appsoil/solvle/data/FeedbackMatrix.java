@@ -0,0 +1,132 @@
+package com.appsoil.solvle.data;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lazily built guess-by-solution table of feedback codes for every solution in a {@link WordIndex}.
+ *
+ * A feedback code is the base-3 encoding of what a guess reveals about a solution under the same rules as
+ * {@link WordRestrictions#generateRestrictions(Word, Word, WordRestrictions)}: each position of the guess is
+ * 2 if it matches the solution's letter in that position, 1 if the solution contains the letter elsewhere and
+ * 0 if the solution does not contain it. The first letter is the least significant digit. Two solutions produce
+ * the same restrictions for a guess exactly when they produce the same code.
+ *
+ * Rows are computed the first time a guess is used and kept in dense char arrays until the cell budget is
+ * spent, after which rows are still computed but no longer retained.
+ */
+@Log4j2
+public final class FeedbackMatrix {
+
+    // 3^10 is the largest code that fits in a char
+    public static final int MAX_MATRIX_WORD_LENGTH = 10;
+    private static final long MAX_CACHED_CELLS = 32_000_000L;
+
+    private final WordIndex solutions;
+    private final long maxCachedCells;
+    private final Map<String, char[]> rows = new ConcurrentHashMap<>();
+    private final AtomicLong cachedCells = new AtomicLong();
+
+    FeedbackMatrix(WordIndex solutions) {
+        this(solutions, MAX_CACHED_CELLS);
+    }
+
+    /**
+     * @param maxCachedCells Number of cells kept across all retained rows
+     */
+    FeedbackMatrix(WordIndex solutions, long maxCachedCells) {
+        this.solutions = solutions;
+        this.maxCachedCells = maxCachedCells;
+    }
+
+    /**
+     * Calculates the feedback code for a single guess/solution pair. Supports words up to 39 letters.
+     */
+    public static long code(Word guess, Word solution) {
+        long code = 0;
+        long digit = 1;
+        long solutionLetters = solution.letterMask();
+        for(int i = 0; i < guess.getLength(); i++) {
+            char c = guess.charAt(i);
+            if(c == solution.charAt(i)) {
+                code += 2 * digit;
+            } else if((solutionLetters & Alphabet.bit(c)) != 0
+                    && (Alphabet.indexOf(c) != Alphabet.UNKNOWN_INDEX || solution.contains(c))) {
+                code += digit;
+            }
+            digit *= 3;
+        }
+        return code;
+    }
+
+    /**
+     * Encodes feedback reported for a guess, one character per letter: 2 or g if the letter is in the right position,
+     * 1 or y if the solution has it elsewhere, 0, b or . if the solution does not have it. A letter reported missing
+     * in one position but found in another is in the solution, so that position is read as found elsewhere.
+     * @throws IllegalArgumentException if the feedback does not have one valid character per letter of the guess
+     */
+    public static long parse(Word guess, String feedback) {
+        if(feedback.length() != guess.getLength()) {
+            throw new IllegalArgumentException("Feedback " + feedback + " does not match the length of " + guess.word());
+        }
+        int[] digits = new int[feedback.length()];
+        for(int i = 0; i < digits.length; i++) {
+            digits[i] = switch (Character.toLowerCase(feedback.charAt(i))) {
+                case '2', 'g' -> 2;
+                case '1', 'y' -> 1;
+                case '0', 'b', '.' -> 0;
+                default -> throw new IllegalArgumentException("Unknown feedback character " + feedback.charAt(i) + " in " + feedback);
+            };
+        }
+
+        long code = 0;
+        long digit = 1;
+        for(int i = 0; i < digits.length; i++) {
+            if(digits[i] == 0) {
+                for(int j = 0; j < digits.length; j++) {
+                    if(digits[j] > 0 && guess.charAt(j) == guess.charAt(i)) {
+                        digits[i] = 1;
+                        break;
+                    }
+                }
+            }
+            code += digits[i] * digit;
+            digit *= 3;
+        }
+        return code;
+    }
+
+    public static boolean supports(int wordLength) {
+        return wordLength <= MAX_MATRIX_WORD_LENGTH;
+    }
+
+    /**
+     * Returns the feedback code of the guess against every solution, in index order. Callers must not modify the row.
+     */
+    public char[] row(Word guess) {
+        char[] row = rows.get(guess.word());
+        if(row != null) {
+            return row;
+        }
+
+        row = new char[solutions.size()];
+        for(int i = 0; i < row.length; i++) {
+            row[i] = (char) code(guess, solutions.get(i));
+        }
+
+        if(cachedCells.addAndGet(row.length) <= maxCachedCells) {
+            char[] existing = rows.putIfAbsent(guess.word(), row);
+            if(existing != null) {
+                cachedCells.addAndGet(-row.length);
+                return existing;
+            }
+        } else {
+            cachedCells.addAndGet(-row.length);
+            log.debug("Feedback matrix budget spent, not caching row for {}", guess);
+        }
+        return row;
+    }
+}
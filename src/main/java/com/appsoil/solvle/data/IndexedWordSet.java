@@ -0,0 +1,187 @@
+package com.appsoil.solvle.data;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Immutable set of words backed by a {@link WordIndex} and a bitset of its members. Filtering by
+ * {@link WordRestrictions} produces another IndexedWordSet without looking at individual words.
+ */
+public final class IndexedWordSet extends AbstractSet<Word> {
+
+    private final WordIndex index;
+    private final BitSet members;
+    private final int size;
+    private volatile Word[] memberArray; // materialized on demand for parallel streams
+
+    public IndexedWordSet(WordIndex index) {
+        this(index, index.allWords());
+    }
+
+    public IndexedWordSet(WordIndex index, BitSet members) {
+        this.index = index;
+        this.members = members;
+        this.size = members.cardinality();
+    }
+
+    /**
+     * Returns the words in this set that match the provided restrictions
+     */
+    public IndexedWordSet filter(WordRestrictions wordRestrictions) {
+        return new IndexedWordSet(index, index.match(wordRestrictions, members));
+    }
+
+    /**
+     * Returns the words in this set that would give the same feedback for the guess as the solution
+     */
+    public IndexedWordSet filterByFeedback(Word guess, Word solution) {
+        return filterByFeedback(guess, FeedbackMatrix.code(guess, solution));
+    }
+
+    /**
+     * Returns the words in this set that would give this feedback code for the guess. Only members of this set are
+     * checked, so the cost shrinks along with the set.
+     */
+    public IndexedWordSet filterByFeedback(Word guess, long code) {
+        FeedbackMatrix matrix = index.feedbackMatrix();
+        char[] row = matrix == null ? null : matrix.row(guess);
+        BitSet result = new BitSet(index.size());
+        for(int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1)) {
+            long wordCode = row == null ? FeedbackMatrix.code(guess, index.get(i)) : row[i];
+            if(wordCode == code) {
+                result.set(i);
+            }
+        }
+        return new IndexedWordSet(index, result);
+    }
+
+    /**
+     * Feedback codes of the guess against each member of this set, in iteration order
+     */
+    public long[] feedbackCodes(Word guess) {
+        FeedbackMatrix matrix = index.feedbackMatrix();
+        char[] row = matrix == null ? null : matrix.row(guess);
+        long[] codes = new long[size];
+        int j = 0;
+        for(int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1)) {
+            codes[j++] = row == null ? FeedbackMatrix.code(guess, index.get(i)) : row[i];
+        }
+        return codes;
+    }
+
+    /**
+     * Groups of members that share letters in some positions, filtered from the groups of the whole index. Returns
+     * null if the index can not be grouped.
+     * @param minSize Smallest group to return
+     */
+    public SharedPositions sharedPositions(int minSize) {
+        SharedPositionIndex shared = index.sharedPositionIndex();
+        return shared == null ? null : shared.within(members, minSize);
+    }
+
+    public WordIndex index() {
+        return index;
+    }
+
+    /**
+     * Identifies which words of the index are in this set, so sets holding the same words compare equal no matter
+     * which restrictions or guesses produced them.
+     */
+    public Fingerprint fingerprint() {
+        return new Fingerprint(index, members);
+    }
+
+    /**
+     * Member bits of a set over a specific index. The hash is computed once since fingerprints are used as map keys.
+     */
+    public static final class Fingerprint {
+        private final WordIndex index;
+        private final BitSet members;
+        private final int hash;
+
+        private Fingerprint(WordIndex index, BitSet members) {
+            this.index = index;
+            this.members = members;
+            this.hash = 31 * System.identityHashCode(index) + members.hashCode();
+        }
+
+        WordIndex index() {
+            return index;
+        }
+
+        /**
+         * Number of words in the index, one member bit each
+         */
+        public int indexSize() {
+            return index.size();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Fingerprint other && index == other.index && hash == other.hash && members.equals(other.members));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if(!(o instanceof Word word)) {
+            return false;
+        }
+        int i = index.indexOf(word);
+        return i >= 0 && members.get(i);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Word> iterator() {
+        return new Iterator<>() {
+            int next = members.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Word next() {
+                if(next < 0) {
+                    throw new NoSuchElementException();
+                }
+                Word word = index.get(next);
+                next = members.nextSetBit(next + 1);
+                return word;
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Word> spliterator() {
+        return Spliterators.spliterator(toWordArray(), Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    private Word[] toWordArray() {
+        Word[] result = memberArray;
+        if(result == null) {
+            result = new Word[size];
+            int j = 0;
+            for(int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1)) {
+                result[j++] = index.get(i);
+            }
+            memberArray = result;
+        }
+        return result;
+    }
+}
@@ -1,43 +1,108 @@
 package com.appsoil.solvle.data;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Objects;
 
-public record KnownPosition(Map<Integer, Character> pos) implements Comparable<KnownPosition>{
+/**
+ * Letters known at some positions of a word, packed into a long with 7 bits per 1-based position: 0 if the position
+ * is not known, otherwise the letter's {@link Alphabet} index + 1. Supports words of up to {@link #MAX_LENGTH} letters.
+ */
+public record KnownPosition(long packed) implements Comparable<KnownPosition>{
 
-    @Override
-    public String toString() {
-        return String.format("Shares %d characters: %s", getShared(), pos.values());
+    public static final int MAX_LENGTH = Long.SIZE / 7;
+    private static final int BITS = 7;
+    private static final long FIELD = (1L << BITS) - 1;
+
+    /**
+     * @param pos Letters by 1-based position
+     */
+    public static KnownPosition of(Map<Integer, Character> pos) {
+        long packed = 0;
+        for(Map.Entry<Integer, Character> entry : pos.entrySet()) {
+            packed |= field(entry.getKey() - 1, entry.getValue());
+        }
+        return new KnownPosition(packed);
     }
 
-    public int getShared() {
-        return pos.keySet().size();
+    /**
+     * Packs the letters of the word at the provided positions
+     * @param positions Bitmask of 0-based positions
+     */
+    public static long pack(Word word, int positions) {
+        long packed = 0;
+        for(; positions != 0; positions &= positions - 1) {
+            int pos = Integer.numberOfTrailingZeros(positions);
+            packed |= field(pos, word.charAt(pos));
+        }
+        return packed;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        KnownPosition that = (KnownPosition) o;
-        return pos.equals(that.pos);
+    private static long field(int pos, char c) {
+        return (Alphabet.indexOf(c) + 1L) << (pos * BITS);
+    }
+
+    /**
+     * Returns true if the letter at this 1-based position is known
+     */
+    public boolean hasPosition(int pos) {
+        return pos >= 1 && pos <= MAX_LENGTH && fieldAt(pos) != 0;
+    }
+
+    /**
+     * Returns true if the letter is known at any position
+     */
+    public boolean containsLetter(char c) {
+        long field = Alphabet.indexOf(c) + 1L;
+        for(long rest = packed; rest != 0; rest >>>= BITS) {
+            if((rest & FIELD) == field) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int fieldAt(int pos) {
+        return (int) ((packed >>> ((pos - 1) * BITS)) & FIELD);
+    }
+
+    /**
+     * Known letters by 1-based position, in position order
+     */
+    public Map<Integer, Character> pos() {
+        Map<Integer, Character> pos = new LinkedHashMap<>();
+        for(int i = 1; i <= MAX_LENGTH; i++) {
+            if(hasPosition(i)) {
+                pos.put(i, Alphabet.letterAt(fieldAt(i) - 1));
+            }
+        }
+        return pos;
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(pos);
+    public String toString() {
+        return String.format("Shares %d characters: %s", getShared(), pos().values());
+    }
+
+    public int getShared() {
+        int shared = 0;
+        for(long rest = packed; rest != 0; rest >>>= BITS) {
+            if((rest & FIELD) != 0) {
+                shared++;
+            }
+        }
+        return shared;
     }
 
     @Override
     public int compareTo(KnownPosition o) {
         if(getShared() == o.getShared()) {
-            //largest word size supported = 9, just look for them all to avoid overhead
-            for(int i = 0; i < 10; i++) {
-                if(pos.containsKey(i) && !o.pos.containsKey(i)) {
+            for(int i = 1; i <= MAX_LENGTH; i++) {
+                if(hasPosition(i) && !o.hasPosition(i)) {
                     return -1;
-                } else if (!pos.containsKey(i) && o.pos.containsKey(i)) {
+                } else if (!hasPosition(i) && o.hasPosition(i)) {
                     return 1;
-                } else if(pos.containsKey(i) && o.pos.containsKey(i)){
-                    int compPos = pos.get(i).compareTo(o.pos.get(i));
+                } else if(hasPosition(i) && o.hasPosition(i)){
+                    int compPos = Character.compare(Alphabet.letterAt(fieldAt(i) - 1), Alphabet.letterAt(o.fieldAt(i) - 1));
                     if(compPos != 0) {
                         return compPos;
                     }
@@ -0,0 +1,75 @@
+package com.appsoil.solvle.data;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of words in a set that contain each letter, in a dense table indexed by {@link Alphabet#indexOf(char)}.
+ * Characters outside the {@link Alphabet} share one slot. That is exact for viable word sets, since restrictions
+ * never allow those characters.
+ */
+public final class LetterCounts {
+
+    private final int[] counts;
+
+    LetterCounts(int[] counts) {
+        this.counts = counts;
+    }
+
+    /**
+     * Counts each letter once for every word that contains it. Parallel workers fill their own partial tables,
+     * which are summed at the end.
+     */
+    public static LetterCounts of(Collection<Word> words) {
+        return new LetterCounts(words.parallelStream().collect(() -> new int[Alphabet.SLOTS], (partial, word) -> {
+            for(long letters = word.letterMask(); letters != 0; letters &= letters - 1) {
+                partial[Long.numberOfTrailingZeros(letters)]++;
+            }
+        }, LetterCounts::add));
+    }
+
+    static void add(int[] total, int[] partial) {
+        for(int i = 0; i < total.length; i++) {
+            total[i] += partial[i];
+        }
+    }
+
+    public int get(char c) {
+        return counts[Alphabet.indexOf(c)];
+    }
+
+    /**
+     * Count for a letter index, see {@link Alphabet#indexOf(char)}
+     */
+    public int get(int letterIndex) {
+        return counts[letterIndex];
+    }
+
+    /**
+     * Returns a copy of these counts with the provided letters removed
+     */
+    public LetterCounts without(Set<Character> letters) {
+        int[] result = Arrays.copyOf(counts, counts.length);
+        letters.forEach(c -> result[Alphabet.indexOf(c)] = 0);
+        return new LetterCounts(result);
+    }
+
+    /**
+     * Letters with a count above zero mapped to their counts, in the form returned to the front end
+     */
+    public Map<Character, LongAdder> toMap() {
+        Map<Character, LongAdder> result = new HashMap<>();
+        for(int i = 0; i < Alphabet.size(); i++) {
+            if(counts[i] > 0) {
+                LongAdder count = new LongAdder();
+                count.add(counts[i]);
+                result.put(Alphabet.letterAt(i), count);
+            }
+        }
+        return result;
+    }
+}
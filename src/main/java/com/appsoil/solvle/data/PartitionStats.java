@@ -0,0 +1,93 @@
+package com.appsoil.solvle.data;
+
+import java.util.Arrays;
+
+/**
+ * Summary of how a guess splits a set of solutions into groups that share the same feedback.
+ * @param solutions Number of solutions partitioned
+ * @param groups    Number of distinct feedback groups
+ * @param mean      Expected number of words remaining after the guess, assuming each solution is equally likely
+ * @param max       Size of the largest group, i.e. the worst case number of remaining words
+ * @param entropy   Expected information gained by the guess, in bits
+ */
+public record PartitionStats(int solutions, int groups, double mean, int max, double entropy) {
+
+    // codes below this bound are counted in a reusable array, larger ones are sorted instead
+    private static final int MAX_HISTOGRAM_SIZE = 6561; // 3^8
+
+    private static final ThreadLocal<int[]> histograms = ThreadLocal.withInitial(() -> new int[MAX_HISTOGRAM_SIZE]);
+
+    /**
+     * Builds the stats from the feedback code of every solution in one pass over a histogram of group sizes.
+     * @param codes Feedback codes as produced by {@link FeedbackMatrix#code(Word, Word)}
+     * @param wordLength Length of the guess, which bounds the codes to 3^wordLength
+     * @return The stats, or null if there are no solutions
+     */
+    public static PartitionStats fromCodes(long[] codes, int wordLength) {
+        if(codes.length == 0) {
+            return null;
+        }
+        if(Math.pow(3, wordLength) <= MAX_HISTOGRAM_SIZE) {
+            return fromHistogram(codes);
+        }
+        return fromSortedCodes(codes);
+    }
+
+    private static PartitionStats fromHistogram(long[] codes) {
+        int[] histogram = histograms.get();
+        for(long code : codes) {
+            histogram[(int) code]++;
+        }
+
+        Accumulator accumulator = new Accumulator(codes.length);
+        for(long code : codes) {
+            // each group is visited once, then cleared so the array is ready for the next caller on this thread
+            int size = histogram[(int) code];
+            if(size > 0) {
+                accumulator.addGroup(size);
+                histogram[(int) code] = 0;
+            }
+        }
+        return accumulator.toStats();
+    }
+
+    private static PartitionStats fromSortedCodes(long[] codes) {
+        long[] sorted = Arrays.copyOf(codes, codes.length);
+        Arrays.sort(sorted);
+
+        Accumulator accumulator = new Accumulator(sorted.length);
+        int start = 0;
+        for(int i = 1; i <= sorted.length; i++) {
+            if(i == sorted.length || sorted[i] != sorted[start]) {
+                accumulator.addGroup(i - start);
+                start = i;
+            }
+        }
+        return accumulator.toStats();
+    }
+
+    private static final class Accumulator {
+        private final int solutions;
+        private long sumOfSquares;
+        private int groups;
+        private int max;
+        private double entropy;
+
+        Accumulator(int solutions) {
+            this.solutions = solutions;
+        }
+
+        void addGroup(int size) {
+            // every solution in a group of size n leaves n words, so the group adds n * n to the total
+            sumOfSquares += (long) size * size;
+            groups++;
+            max = Math.max(max, size);
+            double p = (double) size / solutions;
+            entropy -= p * Math.log(p) / Math.log(2);
+        }
+
+        PartitionStats toStats() {
+            return new PartitionStats(solutions, groups, (double) sumOfSquares / solutions, max, entropy);
+        }
+    }
+}
@@ -3,10 +3,24 @@ package com.appsoil.solvle.data;
 import java.util.List;
 import java.util.Objects;
 
-public record PlayOut(String word, double average, String counts, List<List<String>> failures) implements Comparable<PlayOut> {
+/**
+ * Solve lengths of every solution after guessing a word
+ * @param average  Mean number of guesses, or a lower bound on it if pruned
+ * @param counts   Number of solutions by number of guesses
+ * @param failures Guesses for the solutions that took too many
+ * @param pruned   True if the playout was abandoned because it could no longer beat the best one, in which case the
+ *                 counts and failures only cover the solutions played out before that
+ */
+public record PlayOut(String word, double average, String counts, List<List<String>> failures, boolean pruned) implements Comparable<PlayOut> {
+
+    /**
+     * Finished playouts sort before pruned ones, and then by average
+     */
     @Override
     public int compareTo(PlayOut o) {
-        if(average == o.average) {
+        if(pruned != o.pruned) {
+            return pruned ? 1 : -1;
+        } else if(average == o.average) {
             return word.compareTo(o.word);
         } else {
             return Double.compare(average, o.average);
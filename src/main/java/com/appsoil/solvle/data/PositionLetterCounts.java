@@ -0,0 +1,123 @@
+package com.appsoil.solvle.data;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Number of words in a set with each letter in each position, in a dense [position][letter] table indexed by
+ * 0-based position and {@link Alphabet#indexOf(char)}. See {@link LetterCounts} for characters outside the alphabet.
+ */
+public final class PositionLetterCounts {
+
+    private final int[][] counts;
+
+    private PositionLetterCounts(int[][] counts) {
+        this.counts = counts;
+    }
+
+    /**
+     * Counts the letter in every position of every word. Parallel workers fill their own partial tables, which are
+     * summed at the end.
+     */
+    public static PositionLetterCounts of(Collection<Word> words) {
+        return new PositionLetterCounts(words.parallelStream().collect(Partial::new, Partial::add, Partial::merge).counts);
+    }
+
+    /**
+     * Number of positions with counts, which is the length of the longest counted word
+     */
+    public int positions() {
+        return counts.length;
+    }
+
+    /**
+     * Count for a letter at a 0-based position, or 0 if no counted word is that long
+     */
+    public int get(int position, char c) {
+        return get(position, Alphabet.indexOf(c));
+    }
+
+    /**
+     * Count for a letter index at a 0-based position, see {@link Alphabet#indexOf(char)}
+     */
+    public int get(int position, int letterIndex) {
+        return position < counts.length ? counts[position][letterIndex] : 0;
+    }
+
+    /**
+     * Returns a copy without the letters that add nothing new when scoring a guess: every letter of a position
+     * whose letter is already known or is the only one seen there, and the more common letter of a position with
+     * exactly two options, since finding one rules out the other.
+     * @param letterPositions Known letters by 1-based position
+     */
+    public PositionLetterCounts withoutKnownLetters(Map<Integer, Character> letterPositions) {
+        int[][] result = new int[counts.length][];
+        for(int pos = 0; pos < counts.length; pos++) {
+            int[] row = counts[pos];
+            Character known = letterPositions.get(pos + 1);
+            int options = 0;
+            int leastCommon = -1;
+            for(int i = 0; i < row.length; i++) {
+                if(row[i] > 0) {
+                    options++;
+                    if(leastCommon < 0 || row[i] < row[leastCommon]) {
+                        leastCommon = i;
+                    }
+                }
+            }
+
+            if((known != null && row[Alphabet.indexOf(known)] > 0) || options == 1) {
+                result[pos] = new int[Alphabet.SLOTS];
+            } else if(options == 2) {
+                result[pos] = new int[Alphabet.SLOTS];
+                result[pos][leastCommon] = row[leastCommon];
+            } else {
+                result[pos] = row;
+            }
+        }
+        return new PositionLetterCounts(result);
+    }
+
+    /**
+     * Sums each letter over all positions. Words with a repeated letter count once for each time it appears.
+     */
+    public LetterCounts merged() {
+        int[] total = new int[Alphabet.SLOTS];
+        for(int[] row : counts) {
+            LetterCounts.add(total, row);
+        }
+        return new LetterCounts(total);
+    }
+
+    private static final class Partial {
+        private int[][] counts = new int[0][];
+
+        void add(Word word) {
+            if(word.getLength() > counts.length) {
+                grow(word.getLength());
+            }
+            for(int i = 0; i < word.getLength(); i++) {
+                counts[i][Alphabet.indexOf(word.charAt(i))]++;
+            }
+        }
+
+        Partial merge(Partial other) {
+            if(other.counts.length > counts.length) {
+                grow(other.counts.length);
+            }
+            for(int pos = 0; pos < other.counts.length; pos++) {
+                LetterCounts.add(counts[pos], other.counts[pos]);
+            }
+            return this;
+        }
+
+        private void grow(int length) {
+            int[][] grown = new int[length][];
+            System.arraycopy(counts, 0, grown, 0, counts.length);
+            for(int pos = counts.length; pos < length; pos++) {
+                grown[pos] = new int[Alphabet.SLOTS];
+            }
+            counts = grown;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.appsoil.solvle.data;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link WordRestrictions} compiled down to letter bitmasks so that checking a word is a handful of
+ * primitive compares with no boxing. Positions are stored 0-based.
+ */
+public final class RestrictionMask {
+
+    private final long requiredMask;    // letters every match must contain
+    private final long unavailableMask; // letters no match may contain
+    private final int[] knownPositions;
+    private final int[] knownLetters;   // letter indexes, so either case matches
+    private final int[] excludedPositions;
+    private final long[] excludedMasks;
+
+    public RestrictionMask(WordRestrictions wordRestrictions) {
+        long required = 0;
+        for(Character c : wordRestrictions.requiredLetters()) {
+            required |= Alphabet.bit(c);
+        }
+        this.requiredMask = required;
+        // unknown letters are never available, see Alphabet
+        this.unavailableMask = ~(wordRestrictions.word().letterMask() & ~(1L << Alphabet.UNKNOWN_INDEX));
+
+        Map<Integer, Character> letterPositions = wordRestrictions.letterPositions();
+        this.knownPositions = new int[letterPositions.size()];
+        this.knownLetters = new int[letterPositions.size()];
+        int i = 0;
+        for(Map.Entry<Integer, Character> entry : letterPositions.entrySet()) {
+            knownPositions[i] = entry.getKey() - 1;
+            knownLetters[i++] = Alphabet.indexOf(entry.getValue());
+        }
+
+        Map<Integer, Set<Character>> positionExclusions = wordRestrictions.positionExclusions();
+        this.excludedPositions = new int[positionExclusions.size()];
+        this.excludedMasks = new long[positionExclusions.size()];
+        i = 0;
+        for(Map.Entry<Integer, Set<Character>> entry : positionExclusions.entrySet()) {
+            long mask = 0;
+            for(Character c : entry.getValue()) {
+                mask |= Alphabet.bit(c);
+            }
+            excludedPositions[i] = entry.getKey() - 1;
+            excludedMasks[i++] = mask;
+        }
+    }
+
+    /**
+     * Returns true if the provided word satisfies every restriction
+     */
+    public boolean matches(Word word) {
+        long letters = word.letterMask();
+
+        //required letters missing or unavailable letters present
+        if((letters & requiredMask) != requiredMask || (letters & unavailableMask) != 0) {
+            return false;
+        }
+
+        int length = word.getLength();
+        for(int i = 0; i < knownPositions.length; i++) {
+            int pos = knownPositions[i];
+            if(pos < 0 || pos >= length || Alphabet.indexOf(word.charAt(pos)) != knownLetters[i]) {
+                return false;
+            }
+        }
+
+        for(int i = 0; i < excludedPositions.length; i++) {
+            int pos = excludedPositions[i];
+            if(pos >= 0 && pos < length && (Alphabet.bit(word.charAt(pos)) & excludedMasks[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
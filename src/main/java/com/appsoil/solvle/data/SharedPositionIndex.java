@@ -0,0 +1,197 @@
+package com.appsoil.solvle.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Groups of words that share the same letters in some positions, which can turn into ruts of guesses that each only
+ * rule out one word. Two words that have the same letters in exactly 3 or more (but not all) positions both belong
+ * to the group for those letters, for example ROWER and TONER share _O_ER.
+ *
+ * Any group within a subset of the words is part of the same group over all of the words, so a {@link WordIndex}
+ * groups its words once and each set of candidates only has to filter those groups.
+ */
+public final class SharedPositionIndex {
+
+    // (word, position subset) pairs counted while grouping, about 16MB of keys
+    private static final int MAX_KEYS = 2_000_000;
+
+    private final Word[] words;
+    private final long[] positions; // packed KnownPosition of each group
+    private final int[][] members;  // indexes into words of each group's members, ascending
+
+    private SharedPositionIndex(Word[] words, long[] positions, int[][] members) {
+        this.words = words;
+        this.positions = positions;
+        this.members = members;
+    }
+
+    /**
+     * Groups the words. Instead of comparing every pair, each word is counted under every subset of 3 or more
+     * positions. The number of words sharing exactly the positions S with a word is then the sum, over every
+     * superset T of S, of the words sharing at least T, with the sign flipped for each extra position.
+     * @param words Words of the same length. Words with letters outside the {@link Alphabet} are never grouped
+     * @return the groups, or null if the words are longer than {@link KnownPosition#MAX_LENGTH} or there are too many
+     *         to count
+     */
+    public static SharedPositionIndex of(Word[] words) {
+        int length = words.length == 0 ? 0 : words[0].getLength();
+        if(length > KnownPosition.MAX_LENGTH) {
+            return null;
+        }
+        int full = (1 << length) - 1;
+        int[] subsets = IntStream.rangeClosed(0, full).filter(s -> Integer.bitCount(s) >= 3).toArray();
+        if((long) words.length * subsets.length > MAX_KEYS) {
+            return null;
+        }
+
+        // count the words with each combination of letters at 3 or more positions, as sorted unique keys and counts
+        int[] grouped = IntStream.range(0, words.length)
+                .filter(i -> (words[i].letterMask() & (1L << Alphabet.UNKNOWN_INDEX)) == 0)
+                .toArray();
+        long[] keys = new long[grouped.length * subsets.length];
+        for(int i = 0; i < grouped.length; i++) {
+            for(int j = 0; j < subsets.length; j++) {
+                keys[i * subsets.length + j] = KnownPosition.pack(words[grouped[i]], subsets[j]);
+            }
+        }
+        Arrays.parallelSort(keys);
+        int[] counts = new int[keys.length];
+        int unique = 0;
+        for(long key : keys) {
+            if(unique > 0 && keys[unique - 1] == key) {
+                counts[unique - 1]++;
+            } else {
+                keys[unique] = key;
+                counts[unique++] = 1;
+            }
+        }
+
+        Map<Long, Group> groups = new HashMap<>();
+        int[] sharing = new int[full + 1];
+        for(int i : grouped) {
+            Word word = words[i];
+            // words with the same letters as this one in at least the positions of each subset (including itself)
+            Arrays.fill(sharing, 0);
+            for(int subset : subsets) {
+                sharing[subset] = counts[Arrays.binarySearch(keys, 0, unique, KnownPosition.pack(word, subset))];
+            }
+            // inclusion-exclusion over supersets turns that into words sharing exactly those positions. The word
+            //   itself cancels out of every subset except the full word.
+            for(int bit = 1; bit <= full; bit <<= 1) {
+                for(int subset = 0; subset <= full; subset++) {
+                    if((subset & bit) == 0) {
+                        sharing[subset] -= sharing[subset | bit];
+                    }
+                }
+            }
+            for(int subset : subsets) {
+                if(subset != full && sharing[subset] > 0) {
+                    groups.computeIfAbsent(KnownPosition.pack(word, subset), k -> new Group()).add(i);
+                }
+            }
+        }
+
+        long[] positions = new long[groups.size()];
+        int[][] members = new int[groups.size()][];
+        int g = 0;
+        for(Map.Entry<Long, Group> entry : groups.entrySet()) {
+            positions[g] = entry.getKey();
+            members[g++] = Arrays.copyOf(entry.getValue().members, entry.getValue().size);
+        }
+        return new SharedPositionIndex(words, positions, members);
+    }
+
+    /**
+     * Every group with at least minSize words
+     */
+    public SharedPositions all(int minSize) {
+        Map<KnownPosition, Set<Word>> knownPositions = new HashMap<>();
+        for(int g = 0; g < positions.length; g++) {
+            if(members[g].length >= minSize) {
+                Set<Word> group = new HashSet<>();
+                for(int i : members[g]) {
+                    group.add(words[i]);
+                }
+                knownPositions.put(new KnownPosition(positions[g]), group);
+            }
+        }
+        return new SharedPositions(knownPositions);
+    }
+
+    /**
+     * The groups among a subset of the words with at least minSize words. Produces the same groups as indexing only
+     * the candidates, by dropping members whose only partners at exactly those positions are not candidates.
+     * @param candidates Bits of the candidate words, by their index in the array this was built from
+     */
+    public SharedPositions within(BitSet candidates, int minSize) {
+        Map<KnownPosition, Set<Word>> knownPositions = new HashMap<>();
+        int[] present = new int[0];
+        for(int g = 0; g < positions.length; g++) {
+            if(members[g].length < minSize) {
+                continue;
+            }
+            if(present.length < members[g].length) {
+                present = new int[members[g].length];
+            }
+            int count = 0;
+            for(int i : members[g]) {
+                if(candidates.get(i)) {
+                    present[count++] = i;
+                }
+            }
+            if(count < minSize) {
+                continue;
+            }
+
+            int[] others = otherPositions(positions[g]);
+            Set<Word> group = new HashSet<>();
+            for(int a = 0; a < count; a++) {
+                for(int b = 0; b < count; b++) {
+                    if(a != b && differAt(words[present[a]], words[present[b]], others)) {
+                        group.add(words[present[a]]);
+                        break;
+                    }
+                }
+            }
+            if(group.size() >= minSize) {
+                knownPositions.put(new KnownPosition(positions[g]), group);
+            }
+        }
+        return new SharedPositions(knownPositions);
+    }
+
+    /**
+     * 0-based positions that are not part of the packed KnownPosition
+     */
+    private int[] otherPositions(long packed) {
+        KnownPosition known = new KnownPosition(packed);
+        return IntStream.range(0, words[0].getLength()).filter(pos -> !known.hasPosition(pos + 1)).toArray();
+    }
+
+    private static boolean differAt(Word a, Word b, int[] positions) {
+        for(int pos : positions) {
+            if(a.charAt(pos) == b.charAt(pos)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Group {
+        private int[] members = new int[4];
+        private int size;
+
+        void add(int i) {
+            if(size == members.length) {
+                members = Arrays.copyOf(members, size * 2);
+            }
+            members[size++] = i;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.appsoil.solvle.data;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Every guess a deterministic solver makes over a word list, as a tree from the first guess down to each solution.
+ * Children are found by the feedback code of their parent's guess, so solving a word is one code calculation and
+ * binary search per guess.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   int    magic, int version
+ *   UTF    description of the strategy, long fingerprint of the word lists   (tree is rebuilt if either changes)
+ *   int    word length, int number of guess words, char guess words
+ *   int    number of nodes, per node: int guess word, int first edge
+ *   int    number of edges, per edge: long feedback code, int child node
+ * </pre>
+ * Edges of each node are sorted by code and end where the next node's begin.
+ */
+@Log4j2
+public final class StrategyTree {
+
+    private static final int MAGIC = 0x534c5654; // SLVT
+    // file format, bump when the layout changes
+    public static final int VERSION = 1;
+
+    private final String strategy;
+    private final long fingerprint;
+    private final String[] words;   // distinct guesses
+    private final int[] guesses;    // guess word of each node, the root is node 0
+    private final int[] firstEdge;  // first edge of each node, plus the total as a sentinel
+    private final long[] codes;
+    private final int[] children;
+
+    private StrategyTree(String strategy, long fingerprint, String[] words, int[] guesses, int[] firstEdge, long[] codes, int[] children) {
+        this.strategy = strategy;
+        this.fingerprint = fingerprint;
+        this.words = words;
+        this.guesses = guesses;
+        this.firstEdge = firstEdge;
+        this.codes = codes;
+        this.children = children;
+    }
+
+    /**
+     * Builds the tree from the guesses a solver made for every solution
+     * @param solutions   Guesses by solution, each ending with the solution
+     * @param strategy    Description of the solver and config that made the guesses
+     * @param fingerprint {@link #fingerprint} of the word lists the solver used
+     * @throws IllegalArgumentException if the guesses do not come from one deterministic solver
+     */
+    public static StrategyTree of(Map<String, List<String>> solutions, String strategy, long fingerprint) {
+        Builder root = new Builder();
+        solutions.forEach((solution, route) -> {
+            Word word = new Word(solution);
+            Builder node = root;
+            for(int i = 0; i < route.size(); i++) {
+                node.guess(route.get(i));
+                if(i < route.size() - 1) {
+                    node = node.children.computeIfAbsent(FeedbackMatrix.code(new Word(route.get(i)), word), c -> new Builder());
+                }
+            }
+            if(!route.get(route.size() - 1).equals(solution)) {
+                throw new IllegalArgumentException("Guesses for " + solution + " do not end with it");
+            }
+        });
+
+        // number the nodes breadth first so each node's edges are contiguous
+        Map<String, Integer> wordIndexes = new HashMap<>();
+        List<Builder> nodes = new ArrayList<>(List.of(root));
+        int edges = 0;
+        for(int n = 0; n < nodes.size(); n++) {
+            nodes.addAll(nodes.get(n).children.values());
+            edges += nodes.get(n).children.size();
+        }
+        int[] guesses = new int[nodes.size()];
+        int[] firstEdge = new int[nodes.size() + 1];
+        long[] codes = new long[edges];
+        int[] children = new int[edges];
+        int edge = 0;
+        int child = 1;
+        for(int n = 0; n < nodes.size(); n++) {
+            Builder node = nodes.get(n);
+            guesses[n] = wordIndexes.computeIfAbsent(node.guess, w -> wordIndexes.size());
+            firstEdge[n] = edge;
+            for(long code : node.children.keySet()) {
+                codes[edge] = code;
+                children[edge++] = child++;
+            }
+        }
+        firstEdge[nodes.size()] = edge;
+
+        String[] words = new String[wordIndexes.size()];
+        wordIndexes.forEach((word, i) -> words[i] = word);
+        return new StrategyTree(strategy, fingerprint, words, guesses, firstEdge, codes, children);
+    }
+
+    private static final class Builder {
+        private String guess;
+        private final Map<Long, Builder> children = new TreeMap<>();
+
+        void guess(String word) {
+            if(guess != null && !guess.equals(word)) {
+                throw new IllegalArgumentException("Different guesses " + guess + " and " + word + " for the same feedback");
+            }
+            guess = word;
+        }
+    }
+
+    /**
+     * Order-independent hash of the words, to detect trees built from a different version of a word list
+     */
+    public static long fingerprint(Iterable<Word> words) {
+        long fingerprint = 0;
+        for(Word word : words) {
+            long h = word.word().hashCode() * 0x9E3779B97F4A7C15L;
+            fingerprint += h ^ (h >>> 29);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Guesses the strategy makes for this solution
+     * @return An ordered list of guesses ending with the solution, or null if the solution is not in the tree
+     */
+    public List<String> solve(Word solution) {
+        List<String> route = new ArrayList<>();
+        int node = 0;
+        while(true) {
+            String guess = words[guesses[node]];
+            route.add(guess);
+            if(guess.equals(solution.word())) {
+                return route;
+            }
+            int edge = Arrays.binarySearch(codes, firstEdge[node], firstEdge[node + 1], FeedbackMatrix.code(new Word(guess), solution));
+            if(edge < 0) {
+                return null;
+            }
+            node = children[edge];
+        }
+    }
+
+    public String strategy() {
+        return strategy;
+    }
+
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    public int size() {
+        return guesses.length;
+    }
+
+    /**
+     * Writes the tree to a temporary file and moves it into place, so readers never see a partial tree
+     * @throws IOException if the tree could not be written, in which case no file is left behind
+     */
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(strategy);
+                out.writeLong(fingerprint);
+                out.writeInt(words.length == 0 ? 0 : words[0].length());
+                out.writeInt(words.length);
+                for(String word : words) {
+                    out.writeChars(word);
+                }
+                out.writeInt(guesses.length);
+                for(int n = 0; n < guesses.length; n++) {
+                    out.writeInt(guesses[n]);
+                    out.writeInt(firstEdge[n]);
+                }
+                out.writeInt(codes.length);
+                for(int e = 0; e < codes.length; e++) {
+                    out.writeLong(codes[e]);
+                    out.writeInt(children[e]);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        log.info("Wrote {}-node strategy tree {}", guesses.length, file);
+    }
+
+    /**
+     * Reads a tree if the file exists and was built for the same strategy and word lists
+     * @return the tree, or null if it is missing or stale
+     */
+    public static StrategyTree read(Path file, String strategy, long fingerprint) {
+        if(!Files.isReadable(file)) {
+            return null;
+        }
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.info("Ignoring strategy tree {} with unknown format", file);
+                return null;
+            }
+            if(!in.readUTF().equals(strategy) || in.readLong() != fingerprint) {
+                log.info("Ignoring stale strategy tree {}", file);
+                return null;
+            }
+            int length = in.readInt();
+            String[] words = new String[in.readInt()];
+            char[] chars = new char[length];
+            for(int w = 0; w < words.length; w++) {
+                for(int c = 0; c < length; c++) {
+                    chars[c] = in.readChar();
+                }
+                words[w] = new String(chars);
+            }
+            int nodes = in.readInt();
+            int[] guesses = new int[nodes];
+            int[] firstEdge = new int[nodes + 1];
+            for(int n = 0; n < nodes; n++) {
+                guesses[n] = in.readInt();
+                firstEdge[n] = in.readInt();
+            }
+            int edges = in.readInt();
+            firstEdge[nodes] = edges;
+            long[] codes = new long[edges];
+            int[] children = new int[edges];
+            for(int e = 0; e < edges; e++) {
+                codes[e] = in.readLong();
+                children[e] = in.readInt();
+            }
+            return new StrategyTree(strategy, fingerprint, words, guesses, firstEdge, codes, children);
+        } catch (IOException e) {
+            log.warn("Could not read strategy tree {}", file, e);
+            return null;
+        }
+    }
+}
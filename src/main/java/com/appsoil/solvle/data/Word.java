@@ -1,28 +1,45 @@
 package com.appsoil.solvle.data;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.Arrays;
 
 public class Word implements Serializable, Comparable<Word> {
 
     private int order; //used to 'remember' alphabetical order for faster sorting
 
-    private String word;
-    private Map<Character, Integer> letters;
+    private final String word;
+    private final char[] chars;           // letters by position
+    private final long letterMask;        // one bit per letter index present in the word
+    private final char[] distinctLetters; // each letter once, in order of first appearance
+    private final byte[] letterCounts;    // occurrences of the letter at the same index of distinctLetters
 
     public Word(String word, int order){
-        this.word = word;
-        this.letters = new HashMap<>();
+        this(word, order, computeLetterMask(word));
+    }
 
-        for(Character c : word.toCharArray()){
-            if(letters.containsKey(c)){
-                letters.put(c, letters.get(c) + 1);
-            } else {
-                letters.put(c,1);
+    /**
+     * Creates a word with a letter mask that was already computed, for example when loading a dictionary snapshot
+     */
+    public Word(String word, int order, long letterMask){
+        this.word = word;
+        this.chars = word.toCharArray();
+
+        char[] distinct = new char[chars.length];
+        byte[] counts = new byte[chars.length];
+        int numDistinct = 0;
+        for(char c : chars) {
+            int i = 0;
+            while(i < numDistinct && distinct[i] != c) {
+                i++;
             }
+            if(i == numDistinct) {
+                distinct[numDistinct++] = c;
+            }
+            counts[i]++;
         }
+        this.letterMask = letterMask;
+        this.distinctLetters = numDistinct == chars.length ? distinct : Arrays.copyOf(distinct, numDistinct);
+        this.letterCounts = numDistinct == chars.length ? counts : Arrays.copyOf(counts, numDistinct);
         this.order = order;
     }
 
@@ -30,12 +47,50 @@ public class Word implements Serializable, Comparable<Word> {
         this(word, 0);
     }
 
+    private static long computeLetterMask(String word) {
+        long mask = 0;
+        for(int i = 0; i < word.length(); i++) {
+            mask |= Alphabet.bit(word.charAt(i));
+        }
+        return mask;
+    }
+
     public String word() {
         return word;
     }
 
-    public Map<Character, Integer> letters() {
-        return letters;
+    /**
+     * 0-based letter at the provided position
+     */
+    public char charAt(int index) {
+        return chars[index];
+    }
+
+    public long letterMask() {
+        return letterMask;
+    }
+
+    /**
+     * Letters contained in this word with no duplicates. Callers must not modify the returned array.
+     */
+    public char[] distinctLetters() {
+        return distinctLetters;
+    }
+
+    public boolean contains(char c) {
+        return count(c) > 0;
+    }
+
+    /**
+     * Number of times the provided letter appears in this word
+     */
+    public int count(char c) {
+        for(int i = 0; i < distinctLetters.length; i++) {
+            if(distinctLetters[i] == c) {
+                return letterCounts[i];
+            }
+        }
+        return 0;
     }
 
     public void setOrder(int order) {
@@ -65,11 +120,11 @@ public class Word implements Serializable, Comparable<Word> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(word);
+        return 31 + word.hashCode(); // same value as Objects.hash(word) without the varargs array
     }
 
     public int getLength(){
-        return word.length();
+        return chars.length;
     }
 
     @Override
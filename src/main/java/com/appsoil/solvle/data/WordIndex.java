@@ -0,0 +1,174 @@
+package com.appsoil.solvle.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index over a single length bucket of a {@link Dictionary}. Words are stored alphabetically and each
+ * (position, letter) and (contains letter) pair gets a bitset of the words that have it, so a set of
+ * {@link WordRestrictions} can be resolved by intersecting and subtracting bitsets instead of checking every word.
+ */
+public final class WordIndex {
+
+    private final Word[] words;
+    private final BitSet allWords;
+    private final BitSet[] wordsWithLetter;      // [letter index]
+    private final BitSet[][] wordsWithLetterAt;  // [0-based position][letter index]
+    private final long lettersPresent;           // every letter index used by at least one word
+    private volatile FeedbackMatrix feedbackMatrix;
+    private volatile SharedPositionIndex sharedPositionIndex;
+    private volatile boolean sharedPositionsGrouped;
+
+    /**
+     * Builds the index and assigns every word its alphabetical order (1-based) within this index.
+     * @param source Words to index, all expected to be the same length
+     */
+    public WordIndex(Collection<Word> source) {
+        this.words = source.toArray(new Word[0]);
+        Arrays.sort(words, (a, b) -> a.word().compareTo(b.word()));
+
+        int maxLength = Arrays.stream(words).mapToInt(Word::getLength).max().orElse(0);
+        this.allWords = new BitSet(words.length);
+        this.wordsWithLetter = new BitSet[Alphabet.SLOTS];
+        this.wordsWithLetterAt = new BitSet[maxLength][Alphabet.SLOTS];
+
+        long present = 0;
+        for(int i = 0; i < words.length; i++) {
+            Word word = words[i];
+            word.setOrder(i + 1);
+            allWords.set(i);
+            present |= word.letterMask();
+            for(int pos = 0; pos < word.getLength(); pos++) {
+                int letter = Alphabet.indexOf(word.charAt(pos));
+                bitsFor(wordsWithLetter, letter).set(i);
+                bitsFor(wordsWithLetterAt[pos], letter).set(i);
+            }
+        }
+        this.lettersPresent = present;
+    }
+
+    private BitSet bitsFor(BitSet[] slots, int letter) {
+        if(slots[letter] == null) {
+            slots[letter] = new BitSet(words.length);
+        }
+        return slots[letter];
+    }
+
+    /**
+     * Returns the subset of candidates that satisfy the provided restrictions. Candidates are not modified.
+     * @param wordRestrictions Restrictions to resolve
+     * @param candidates Bits of the words to consider, as returned by this index
+     * @return A new bitset of matching words
+     */
+    public BitSet match(WordRestrictions wordRestrictions, BitSet candidates) {
+        BitSet result = (BitSet) candidates.clone();
+
+        for(Character c : wordRestrictions.requiredLetters()) {
+            if(!intersect(result, wordsWithLetter[Alphabet.indexOf(c)])) {
+                return result;
+            }
+        }
+
+        for(Map.Entry<Integer, Character> entry : wordRestrictions.letterPositions().entrySet()) {
+            int pos = entry.getKey() - 1;
+            if(pos < 0 || pos >= wordsWithLetterAt.length
+                    || !intersect(result, wordsWithLetterAt[pos][Alphabet.indexOf(entry.getValue())])) {
+                result.clear();
+                return result;
+            }
+        }
+
+        // unknown letters are never available, see Alphabet
+        long unavailable = lettersPresent & ~(wordRestrictions.word().letterMask() & ~(1L << Alphabet.UNKNOWN_INDEX));
+        for(; unavailable != 0; unavailable &= unavailable - 1) {
+            result.andNot(wordsWithLetter[Long.numberOfTrailingZeros(unavailable)]);
+        }
+
+        for(Map.Entry<Integer, Set<Character>> entry : wordRestrictions.positionExclusions().entrySet()) {
+            int pos = entry.getKey() - 1;
+            if(pos < 0 || pos >= wordsWithLetterAt.length) {
+                continue;
+            }
+            for(Character c : entry.getValue()) {
+                BitSet excluded = wordsWithLetterAt[pos][Alphabet.indexOf(c)];
+                if(excluded != null) {
+                    result.andNot(excluded);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * ANDs the bits into the result, clearing it instead if no word has them. Returns false if the result is now empty.
+     */
+    private boolean intersect(BitSet result, BitSet bits) {
+        if(bits == null) {
+            result.clear();
+        } else {
+            result.and(bits);
+        }
+        return !result.isEmpty();
+    }
+
+    /**
+     * Position of this word within the index, or -1 if it is not present
+     */
+    public int indexOf(Word word) {
+        int i = word.getOrder() - 1;
+        if(i >= 0 && i < words.length && words[i].word().equals(word.word())) {
+            return i;
+        }
+        // words from other dictionaries carry a different order, so fall back to the alphabetical search
+        i = Arrays.binarySearch(words, word, (a, b) -> a.word().compareTo(b.word()));
+        return i < 0 ? -1 : i;
+    }
+
+    /**
+     * Returns the feedback matrix for guesses against the words in this index, or null if words of this
+     * length are too long to encode in the matrix.
+     */
+    public FeedbackMatrix feedbackMatrix() {
+        FeedbackMatrix matrix = feedbackMatrix;
+        if(matrix == null && words.length > 0 && FeedbackMatrix.supports(words[0].getLength())) {
+            synchronized (this) {
+                if(feedbackMatrix == null) {
+                    feedbackMatrix = new FeedbackMatrix(this);
+                }
+                matrix = feedbackMatrix;
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Returns the shared position groups of the words in this index, grouping them on first use, or null if words of
+     * this length can not be grouped.
+     */
+    public SharedPositionIndex sharedPositionIndex() {
+        if(!sharedPositionsGrouped) {
+            synchronized (this) {
+                if(!sharedPositionsGrouped) {
+                    sharedPositionIndex = SharedPositionIndex.of(words);
+                    sharedPositionsGrouped = true;
+                }
+            }
+        }
+        return sharedPositionIndex;
+    }
+
+    public Word get(int i) {
+        return words[i];
+    }
+
+    public int size() {
+        return words.length;
+    }
+
+    public BitSet allWords() {
+        return (BitSet) allWords.clone();
+    }
+}
@@ -4,6 +4,7 @@ import lombok.extern.log4j.Log4j2;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -22,7 +23,8 @@ public record WordRestrictions(Word word,
 
     private static int MAX_WORD_LENGTH = 9;
 
-    public static final WordRestrictions NO_RESTRICTIONS = new WordRestrictions("aábcdðeéfghiíjklmnoópqrstuúvwxyýzþæö");
+    // every letter available, rebuilt when a dictionary adds letters to the alphabet
+    private static volatile WordRestrictions noRestrictions = new WordRestrictions(Alphabet.letters());
 
     /**
      * Creates a description of known restriction knowledge based on provided input string.
@@ -83,11 +85,75 @@ public record WordRestrictions(Word word,
         return new WordRestrictions(word, newRequiredLetters, letterPositions, positionExclusions);
     }
 
+    /**
+     * Returns a restriction string equivalent to these restrictions with a single spelling: available letters in
+     * sorted order, each followed by its known positions in order, then '!' and its excluded positions in order if
+     * it is required elsewhere. Duplicate letters and exclusions made redundant by another letter's known position
+     * are dropped, so any two strings describing the same knowledge produce the same canonical string.
+     */
+    public String toCanonicalString() {
+        StringBuilder canonical = new StringBuilder();
+        word.word().chars().distinct().sorted().forEach(i -> {
+            char c = (char) i;
+            canonical.append(c);
+            letterPositions.entrySet().stream()
+                    .filter(e -> e.getValue() == c)
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .forEach(canonical::append);
+            boolean hasPosition = letterPositions.containsValue(c);
+
+            List<Integer> exclusions = positionExclusions.entrySet().stream()
+                    .filter(e -> e.getValue().contains(c))
+                    .map(Map.Entry::getKey)
+                    .filter(pos -> !letterPositions.containsKey(pos) || letterPositions.get(pos) == c) // position taken by another letter anyway
+                    .sorted()
+                    .toList();
+            if(!exclusions.isEmpty() || (requiredLetters.contains(c) && !hasPosition)) {
+                canonical.append('!');
+                exclusions.forEach(canonical::append);
+            }
+        });
+        return canonical.toString();
+    }
+
+    /**
+     * Canonical form of a restriction string, see {@link #toCanonicalString()}
+     */
+    public static String canonicalize(String restrictionString) {
+        return new WordRestrictions(restrictionString).toCanonicalString();
+    }
+
+    /**
+     * Compiles these restrictions into bitmasks for fast matching against many words.
+     */
+    public RestrictionMask toMask() {
+        return new RestrictionMask(this);
+    }
+
+    /**
+     * Restrictions that allow every letter of the {@link Alphabet}
+     */
     public static WordRestrictions noRestrictions() {
-        return NO_RESTRICTIONS;
+        WordRestrictions restrictions = noRestrictions;
+        if(restrictions.word().getLength() != Alphabet.size()) {
+            restrictions = new WordRestrictions(Alphabet.letters());
+            noRestrictions = restrictions;
+        }
+        return restrictions;
     }
 
     public static WordRestrictions generateRestrictions(Word solution, Word guess, WordRestrictions currentRestrictions) {
+        return applyFeedback(guess, FeedbackMatrix.code(guess, solution), currentRestrictions);
+    }
+
+    /**
+     * Adds what a guess revealed to the current restrictions.
+     * @param guess The guessed word
+     * @param feedback Feedback code for the guess, as produced by {@link FeedbackMatrix#code(Word, Word)}
+     * @param currentRestrictions Restrictions known before the guess
+     */
+    public static WordRestrictions applyFeedback(Word guess, long feedback, WordRestrictions currentRestrictions) {
 
         String restrictionWord = currentRestrictions.word().word();
         Set<Character> newRequiredLetters = new HashSet<>(currentRestrictions.requiredLetters());
@@ -102,11 +168,12 @@ public record WordRestrictions(Word word,
             newPositionExclusions.put(pos, newCs);
         });
 
-        for(int i = 0; i < guess.getLength(); i++) {
+        for(int i = 0; i < guess.getLength(); i++, feedback /= 3) {
             char c = guess.word().charAt(i);
+            int result = (int) (feedback % 3);
 
             //if solution contains this letter, add it to required, otherwise remove it from the available chars
-            if(solution.letters().containsKey(c)) {
+            if(result > 0) {
                 newRequiredLetters.add(c);
             } else {
                 restrictionWord = restrictionWord.replace("" + c, "");
@@ -114,7 +181,7 @@ public record WordRestrictions(Word word,
             }
 
             // if the letter is in the correct spot, put it in solutions, otherwise, exclude this position
-            if(c == solution.word().charAt(i)) {
+            if(result == 2) {
                 newLetterPositions.put(i + 1, c);
             } else {
                 newPositionExclusions.putIfAbsent(i + 1, new HashSet<>());
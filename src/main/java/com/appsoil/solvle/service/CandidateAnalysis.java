@@ -0,0 +1,155 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.controller.SolvleDTO;
+import com.appsoil.solvle.data.IndexedWordSet;
+import com.appsoil.solvle.data.LetterCounts;
+import com.appsoil.solvle.data.PartitionStats;
+import com.appsoil.solvle.data.PositionLetterCounts;
+import com.appsoil.solvle.data.WordRestrictions;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Supplier;
+
+/**
+ * Derived data for one set of candidate solutions. Different restriction strings and solver paths often narrow a
+ * dictionary down to the same candidates, so {@link SolvleService} keeps these in a transposition table keyed by
+ * which words remain instead of how we got there.
+ *
+ * Entries fill in as requests use them and values are never modified once stored. Every time an entry stores a
+ * new value it reports that it grew, so the cache can weigh it again.
+ */
+public final class CandidateAnalysis {
+
+    /**
+     * Scoring only reads the required letters and known positions from the restrictions, everything else they
+     * contribute is already reflected in which candidates remain.
+     */
+    public record Key(IndexedWordSet.Fingerprint candidates, Set<Character> requiredLetters, Map<Integer, Character> letterPositions, WordCalculationConfig config) {
+        static Key of(IndexedWordSet candidates, WordRestrictions wordRestrictions, WordCalculationConfig config) {
+            return new Key(candidates.fingerprint(), Set.copyOf(wordRestrictions.requiredLetters()), Map.copyOf(wordRestrictions.letterPositions()), config);
+        }
+    }
+
+    private final Map<IndexedWordSet.Fingerprint, SolvleDTO> analyses = new ConcurrentHashMap<>(); // by fishing set
+    private final Map<String, PartitionStats> partitions = new ConcurrentHashMap<>();              // by guess
+    private Map<Character, DoubleAdder> sharedPositionBonus;
+    private LetterCounts letterCounts;
+    private PositionLetterCounts positionCounts;
+    private final Runnable grown;
+
+    /**
+     * @param grown Called after a new value is stored
+     */
+    CandidateAnalysis(Runnable grown) {
+        this.grown = grown;
+    }
+
+    CandidateAnalysis() {
+        this(() -> {});
+    }
+
+    /**
+     * Returns the analysis against this fishing set, calculating it if needed. The calculation runs without holding
+     * any lock, so two callers may both calculate it and the first to finish wins. Requests for the same restriction
+     * string are already coalesced before they get here.
+     */
+    SolvleDTO analysis(IndexedWordSet.Fingerprint fishing, Supplier<SolvleDTO> calculation) {
+        return computeIfAbsent(analyses, fishing, calculation);
+    }
+
+    PartitionStats partitionStats(String guess, Supplier<PartitionStats> calculation) {
+        return computeIfAbsent(partitions, guess, calculation);
+    }
+
+    private <K, V> V computeIfAbsent(Map<K, V> values, K key, Supplier<V> calculation) {
+        V value = values.get(key);
+        if(value == null) {
+            value = calculation.get();
+            if(value == null) {
+                return null; // nothing to keep, same as ConcurrentHashMap.computeIfAbsent
+            }
+            V existing = values.putIfAbsent(key, value);
+            if(existing != null) {
+                return existing;
+            }
+            grown.run();
+        }
+        return value;
+    }
+
+    Map<Character, DoubleAdder> sharedPositionBonus(Supplier<Map<Character, DoubleAdder>> calculation) {
+        Map<Character, DoubleAdder> bonus;
+        synchronized (this) {
+            if(sharedPositionBonus != null) {
+                return sharedPositionBonus;
+            }
+            bonus = sharedPositionBonus = calculation.get();
+        }
+        grown.run();
+        return bonus;
+    }
+
+    /**
+     * Character counts of the candidates with required letters removed, used when the key's config scores by character
+     */
+    LetterCounts letterCounts(Supplier<LetterCounts> calculation) {
+        LetterCounts counts;
+        synchronized (this) {
+            if(letterCounts != null) {
+                return letterCounts;
+            }
+            counts = letterCounts = calculation.get();
+        }
+        grown.run();
+        return counts;
+    }
+
+    /**
+     * Character counts by position of the candidates with known letters removed, used when the key's config scores
+     * by position
+     */
+    PositionLetterCounts positionCounts(Supplier<PositionLetterCounts> calculation) {
+        PositionLetterCounts counts;
+        synchronized (this) {
+            if(positionCounts != null) {
+                return positionCounts;
+            }
+            counts = positionCounts = calculation.get();
+        }
+        grown.run();
+        return counts;
+    }
+
+    /**
+     * Analyses stored so far, one per fishing set
+     */
+    public Collection<SolvleDTO> analyses() {
+        return Collections.unmodifiableCollection(analyses.values());
+    }
+
+    /**
+     * Number of guesses with stored partition stats
+     */
+    public int partitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Number of letters with a shared position bonus, if the bonus has been calculated
+     */
+    public synchronized int bonusCount() {
+        return sharedPositionBonus == null ? 0 : sharedPositionBonus.size();
+    }
+
+    /**
+     * Number of positions with stored character counts, counting letter counts as one
+     */
+    public synchronized int countedPositions() {
+        return (letterCounts == null ? 0 : 1) + (positionCounts == null ? 0 : positionCounts.positions());
+    }
+}
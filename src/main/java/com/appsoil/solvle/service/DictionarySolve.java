@@ -0,0 +1,231 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.data.Word;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One run of a solver over every word of a dictionary. Each word is solved as a separate task on the provided
+ * executor, and every finished word is appended to an optional checkpoint file so that a run that was cancelled or
+ * killed can pick up where it left off instead of solving every word again.
+ *
+ * A checkpoint starts with a header holding its format version and the fingerprint of the word lists it was
+ * solved against, and a checkpoint with any other header is discarded. The other lines are the solution, a tab and
+ * the comma-separated guesses. The checkpoint is deleted once every word is solved.
+ */
+@Log4j2
+public class DictionarySolve {
+
+    // guesses allowed before a solution counts as a failure
+    private static final int MAX_GUESSES = 6;
+
+    // bump when the checkpoint lines change, so older checkpoints are solved again instead of misread
+    static final int FORMAT_VERSION = 2;
+
+    private final List<Word> words;
+    private final Function<Word, List<String>> solveWord;
+    private final Path checkpoint;
+    private final String header;
+    private final Map<String, List<String>> solutions = new ConcurrentHashMap<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile boolean cancelled;
+    private CompletableFuture<Result> result;
+    private BufferedWriter checkpointWriter;
+
+    /**
+     * Solution routes of every solved word and their statistics
+     * @param cancelled true if the run was cancelled before every word was solved
+     */
+    public record Result(Map<String, List<String>> solutions, Summary summary, boolean cancelled) {}
+
+    /**
+     * @param mean        Mean number of guesses per solution
+     * @param guessCounts Number of solutions found with each number of guesses
+     * @param failures    Routes that took more than 6 guesses
+     */
+    public record Summary(int words, double mean, int maxGuesses, SortedMap<Integer, Long> guessCounts, List<List<String>> failures) {
+
+        static Summary of(Map<String, List<String>> solutions) {
+            SortedMap<Integer, Long> guessCounts = solutions.values().stream()
+                    .collect(Collectors.groupingBy(List::size, TreeMap::new, Collectors.counting()));
+            double mean = solutions.values().stream().mapToInt(List::size).average().orElse(0);
+            List<List<String>> failures = solutions.values().stream().filter(guesses -> guesses.size() > MAX_GUESSES).toList();
+            int maxGuesses = guessCounts.isEmpty() ? 0 : guessCounts.lastKey();
+            return new Summary(solutions.size(), mean, maxGuesses, guessCounts, failures);
+        }
+    }
+
+    /**
+     * @param words      Solutions to solve for
+     * @param solveWord  Returns the guesses used to find a solution. Called from the executor's threads
+     * @param checkpoint Optional. File to resume from and to record solved words in
+     * @param fingerprint Fingerprint of the word lists the words are solved against, a checkpoint written for
+     *                    another fingerprint is not resumed
+     */
+    DictionarySolve(Collection<Word> words, Function<Word, List<String>> solveWord, Path checkpoint, long fingerprint) {
+        this.words = List.copyOf(words);
+        this.solveWord = solveWord;
+        this.checkpoint = checkpoint;
+        this.header = header(fingerprint);
+    }
+
+    /**
+     * First line of a checkpoint for these word lists
+     */
+    static String header(long fingerprint) {
+        return String.format("solvle-checkpoint\t%d\t%016x", FORMAT_VERSION, fingerprint);
+    }
+
+    /**
+     * Loads any checkpoint and submits a task for every word that has not been solved yet
+     */
+    synchronized DictionarySolve start(Executor executor) {
+        if(result != null) {
+            throw new IllegalStateException("Dictionary solve already started");
+        }
+        if(checkpoint != null) {
+            resume();
+        }
+        List<Word> remaining = words.stream().filter(word -> !solutions.containsKey(word.word())).toList();
+        completed.set(words.size() - remaining.size());
+        log.info("Solving {} of {} words", remaining.size(), words.size());
+
+        CompletableFuture<?>[] tasks = remaining.stream()
+                .map(word -> CompletableFuture.runAsync(() -> solve(word), executor))
+                .toArray(CompletableFuture[]::new);
+        result = CompletableFuture.allOf(tasks)
+                .whenComplete((v, e) -> closeCheckpoint(e == null && !cancelled))
+                .thenApply(v -> new Result(solutions, Summary.of(solutions), cancelled));
+        return this;
+    }
+
+    private void solve(Word word) {
+        if(cancelled) {
+            return;
+        }
+        List<String> guesses = solveWord.apply(word);
+        solutions.put(word.word(), guesses);
+        record(word, guesses);
+        int done = completed.incrementAndGet();
+        if(done % Math.max(1, words.size() / 10) == 0) {
+            log.info("Solved {} of {} words", done, words.size());
+        }
+    }
+
+    private void resume() {
+        if(!Files.isReadable(checkpoint)) {
+            return;
+        }
+        Set<String> known = words.stream().map(Word::word).collect(Collectors.toSet());
+        try {
+            // a run that was killed mid-write can leave a partial last line, which is dropped and solved again
+            String lines = Files.readString(checkpoint, StandardCharsets.UTF_8);
+            String complete = lines.substring(0, lines.lastIndexOf('\n') + 1);
+            if(!complete.startsWith(header + "\n")) {
+                log.info("Discarding checkpoint {} written by another format or for other word lists", checkpoint);
+                Files.delete(checkpoint);
+                return;
+            }
+            if(complete.length() < lines.length()) {
+                try(FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.WRITE)) {
+                    channel.truncate(complete.getBytes(StandardCharsets.UTF_8).length);
+                }
+            }
+            complete.lines().skip(1).map(line -> line.split("\t")).forEach(parts -> {
+                if(parts.length == 2 && known.contains(parts[0])) {
+                    solutions.put(parts[0], List.of(parts[1].split(",")));
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read checkpoint " + checkpoint, e);
+        }
+        log.info("Resuming from checkpoint {} with {} words solved", checkpoint, solutions.size());
+    }
+
+    private synchronized void record(Word word, List<String> guesses) {
+        if(checkpoint == null) {
+            return;
+        }
+        try {
+            if(checkpointWriter == null) {
+                Files.createDirectories(checkpoint.toAbsolutePath().getParent());
+                boolean created = !Files.exists(checkpoint);
+                checkpointWriter = Files.newBufferedWriter(checkpoint, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                if(created) {
+                    checkpointWriter.write(header);
+                    checkpointWriter.write('\n');
+                }
+            }
+            checkpointWriter.write(word.word() + "\t" + String.join(",", guesses));
+            checkpointWriter.write('\n');
+            checkpointWriter.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write checkpoint " + checkpoint, e);
+        }
+    }
+
+    private synchronized void closeCheckpoint(boolean finished) {
+        if(checkpoint == null) {
+            return;
+        }
+        try {
+            if(checkpointWriter != null) {
+                checkpointWriter.close();
+                checkpointWriter = null;
+            }
+            if(finished) {
+                Files.deleteIfExists(checkpoint);
+            }
+        } catch (IOException e) {
+            log.warn("Could not close checkpoint {}", checkpoint, e);
+        }
+    }
+
+    /**
+     * Stops solving new words. Words already being solved finish and are still recorded, and the result completes
+     * with every word solved so far.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Number of words solved, including words loaded from the checkpoint
+     */
+    public int completed() {
+        return completed.get();
+    }
+
+    public int total() {
+        return words.size();
+    }
+
+    /**
+     * Completes once every word is solved or the run is cancelled, or exceptionally if a word could not be solved
+     */
+    public synchronized CompletableFuture<Result> result() {
+        if(result == null) {
+            throw new IllegalStateException("Dictionary solve not started");
+        }
+        return result;
+    }
+}
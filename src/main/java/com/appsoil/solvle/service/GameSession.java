@@ -0,0 +1,72 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.data.WordRestrictions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A game in progress: what we know about the solution so far and the words that could still be the solution.
+ * Guesses are applied one at a time under the session's lock.
+ */
+public class GameSession {
+
+    private final String id;
+    private final String wordList;
+    private final int wordLength;
+    private final WordCalculationConfig config;
+    private final Set<Word> fishingWords;
+    private final List<String> guesses = new ArrayList<>();
+    private WordRestrictions restrictions;
+    private Set<Word> candidates;
+
+    GameSession(String id, String wordList, int wordLength, WordCalculationConfig config, Set<Word> candidates, Set<Word> fishingWords) {
+        this.id = id;
+        this.wordList = wordList;
+        this.wordLength = wordLength;
+        this.config = config;
+        this.candidates = candidates;
+        this.fishingWords = fishingWords;
+        this.restrictions = WordRestrictions.noRestrictions();
+    }
+
+    synchronized void applyGuess(String guess, WordRestrictions restrictions, Set<Word> candidates) {
+        this.guesses.add(guess);
+        this.restrictions = restrictions;
+        this.candidates = candidates;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String wordList() {
+        return wordList;
+    }
+
+    public int wordLength() {
+        return wordLength;
+    }
+
+    public WordCalculationConfig config() {
+        return config;
+    }
+
+    public Set<Word> fishingWords() {
+        return fishingWords;
+    }
+
+    public synchronized List<String> guesses() {
+        return List.copyOf(guesses);
+    }
+
+    public synchronized WordRestrictions restrictions() {
+        return restrictions;
+    }
+
+    public synchronized Set<Word> candidates() {
+        return candidates;
+    }
+}
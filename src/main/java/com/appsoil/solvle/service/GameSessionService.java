@@ -0,0 +1,148 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.controller.SolvleDTO;
+import com.appsoil.solvle.data.DictionaryEvictedEvent;
+import com.appsoil.solvle.data.FeedbackMatrix;
+import com.appsoil.solvle.data.IndexedWordSet;
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.data.WordRestrictions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps games in progress so each guess only has to narrow the words that survived the previous guess, instead of
+ * filtering the whole dictionary from a restriction string every turn.
+ */
+@Service
+@Log4j2
+public class GameSessionService {
+
+    // rough per-object costs, only used to weigh sessions against each other
+    private static final int SESSION_BYTES = 256;
+    private static final int SET_ENTRY_BYTES = 40;
+    private static final int GUESS_BYTES = 64;
+
+    private final SolvleService solvleService;
+    private final Cache<String, GameSession> sessions;
+
+    public GameSessionService(SolvleService solvleService,
+                              @Value("${solvle.session.expire-after-access:PT1H}") Duration expireAfterAccess,
+                              @Value("${solvle.session.max-size:64MB}") DataSize maxSize) {
+        this.solvleService = solvleService;
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterAccess(expireAfterAccess)
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String id, GameSession session) -> weigh(session))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Approximate heap a session holds on its own. Until the first guess its candidates are the dictionary's shared
+     * set and are not counted. Candidates narrowed from an indexed dictionary cost one bit per word of the dictionary,
+     * others one set entry per candidate.
+     */
+    static int weigh(GameSession session) {
+        int guesses = session.guesses().size();
+        Set<Word> candidates = session.candidates();
+        if(guesses == 0) {
+            return SESSION_BYTES;
+        } else if(candidates instanceof IndexedWordSet indexed) {
+            return SESSION_BYTES + guesses * GUESS_BYTES + indexed.index().size() / Byte.SIZE;
+        }
+        return SESSION_BYTES + guesses * GUESS_BYTES + candidates.size() * SET_ENTRY_BYTES;
+    }
+
+    /**
+     * Starts a game against the words of this length in the word list
+     * @throws IllegalArgumentException if the word list has no words of this length
+     */
+    public GameSession create(int wordLength, String wordList, WordCalculationConfig config) {
+        Set<Word> candidates = solvleService.getPrimarySet(wordList, wordLength);
+        Set<Word> fishingWords = solvleService.getFishingSet(wordList, wordLength);
+        if(candidates == null || fishingWords == null) {
+            throw new IllegalArgumentException("No " + wordLength + "-letter words in " + wordList);
+        }
+        GameSession session = new GameSession(UUID.randomUUID().toString(), wordList, wordLength, config, candidates, fishingWords);
+        sessions.put(session.id(), session);
+        log.info("Started {}-letter {} session {}", wordLength, wordList, session.id());
+        return session;
+    }
+
+    /**
+     * Returns the session, or null if it does not exist, has expired or its words were released by the dictionary
+     */
+    public GameSession get(String id) {
+        GameSession session = sessions.getIfPresent(id);
+        if(session != null) {
+            // counts as use of the session's dictionary buckets, so they are not released while it is being played
+            solvleService.getPrimarySet(session.wordList(), session.wordLength());
+            solvleService.getFishingSet(session.wordList(), session.wordLength());
+        }
+        return session;
+    }
+
+    public void end(String id) {
+        sessions.invalidate(id);
+    }
+
+    /**
+     * Narrows the session's candidates to the words that would have given this feedback for the guess
+     * @param feedback One character per letter, see {@link FeedbackMatrix#parse(Word, String)}
+     * @throws IllegalArgumentException if the guess or feedback do not fit the session
+     */
+    public void guess(GameSession session, String guess, String feedback) {
+        if(guess.length() != session.wordLength()) {
+            throw new IllegalArgumentException("Guess " + guess + " is not " + session.wordLength() + " letters long");
+        }
+        Word guessWord = new Word(guess);
+        long code = FeedbackMatrix.parse(guessWord, feedback);
+
+        synchronized (session) {
+            WordRestrictions restrictions = WordRestrictions.applyFeedback(guessWord, code, session.restrictions());
+            Set<Word> candidates = session.candidates() instanceof IndexedWordSet indexedCandidates
+                    ? indexedCandidates.filterByFeedback(guessWord, code)
+                    : new WordCalculationService(session.config()).findMatchingWords(session.candidates(), restrictions);
+            session.applyGuess(guess, restrictions, candidates);
+        }
+        // the first guess replaces the dictionary's shared set with the session's own
+        sessions.asMap().computeIfPresent(session.id(), (id, s) -> s);
+    }
+
+    /**
+     * Analyzes the session's remaining candidates the same way {@link SolvleService#getWordAnalysis} analyzes a
+     * restriction string
+     */
+    public SolvleDTO analyze(GameSession session) {
+        WordRestrictions restrictions;
+        Set<Word> candidates;
+        synchronized (session) {
+            restrictions = session.restrictions();
+            candidates = session.candidates();
+        }
+        SolvleDTO result = solvleService.getWordAnalysis(restrictions, candidates, session.fishingWords(), session.config());
+        return SolvleDTO.appendRestrictionString(restrictions.toCanonicalString(), result);
+    }
+
+    /**
+     * Ends the sessions playing against a released dictionary bucket. They have been idle at least as long as the
+     * bucket, and would otherwise keep the released words reachable.
+     */
+    @EventListener
+    public void dictionaryEvicted(DictionaryEvictedEvent event) {
+        sessions.asMap().values().removeIf(session -> event.covers(session.candidates()) || event.covers(session.fishingWords()));
+    }
+
+    public Cache<?, ?> getSessionCache() {
+        return sessions;
+    }
+}
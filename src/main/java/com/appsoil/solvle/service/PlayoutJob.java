@@ -0,0 +1,98 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.data.PlayOut;
+
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A playout submitted to {@link PlayoutJobService}. Status and results are published by the worker that runs it.
+ * Status only moves forward: a queued job is started or cancelled, and a running job ends once, so a cancel racing
+ * the worker can never overwrite the outcome the worker reported, or the other way around.
+ */
+public final class PlayoutJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, CANCELLED, FAILED }
+
+    private final String id;
+    private final PlayoutProgress progress = new PlayoutProgress();
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.QUEUED);
+    private volatile Set<PlayOut> result;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    PlayoutJob(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public PlayoutProgress progress() {
+        return progress;
+    }
+
+    public Status status() {
+        return status.get();
+    }
+
+    /**
+     * Playouts sorted by average solve length, or null until the job is done
+     */
+    public Set<PlayOut> result() {
+        return result;
+    }
+
+    /**
+     * Why the job failed, or null if it has not
+     */
+    public String error() {
+        return error;
+    }
+
+    public boolean isFinished() {
+        Status current = status.get();
+        return current != Status.QUEUED && current != Status.RUNNING;
+    }
+
+    void running(Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * @return false if the job was cancelled while queued and should not run
+     */
+    boolean start() {
+        return status.compareAndSet(Status.QUEUED, Status.RUNNING);
+    }
+
+    void finish(Set<PlayOut> result) {
+        this.result = result;
+        status.compareAndSet(Status.RUNNING, Status.DONE);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        status.compareAndSet(Status.RUNNING, Status.FAILED);
+    }
+
+    /**
+     * Cancels a queued job immediately, or a running one before its next solve. A running job stays RUNNING until
+     * its worker stops and reports the cancellation.
+     */
+    void cancel() {
+        progress.cancel();
+        if(status.compareAndSet(Status.QUEUED, Status.CANCELLED)) {
+            Future<?> queued = future;
+            if(queued != null) {
+                queued.cancel(false);
+            }
+        }
+    }
+
+    void cancelled() {
+        status.compareAndSet(Status.RUNNING, Status.CANCELLED);
+    }
+}
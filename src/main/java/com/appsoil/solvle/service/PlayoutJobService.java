@@ -0,0 +1,151 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.data.PlayOut;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs playouts as background jobs on a bounded pool of workers, so long playouts do not hold request threads.
+ * Idle workers also help with the pool words of running playouts, so one playout can use the whole pool.
+ * solvle.playout.threads bounds the threads that all playouts use together.
+ * Jobs are kept while they are queued or running, and for a retention window after they finish. Only the most
+ * recently used finished jobs are kept once there are more than solvle.playout.max-retained.
+ */
+@Service
+@Log4j2
+public class PlayoutJobService {
+
+    private final SolvleService solvleService;
+    private final ThreadPoolExecutor workers;
+    private final Cache<String, PlayoutJob> jobs;
+
+    public PlayoutJobService(SolvleService solvleService,
+                             @Value("${solvle.playout.threads:2}") int threads,
+                             @Value("${solvle.playout.max-queued:20}") int maxQueued,
+                             @Value("${solvle.playout.retention:PT1H}") Duration retention,
+                             @Value("${solvle.playout.max-retained:1000}") long maxRetained) {
+        this.solvleService = solvleService;
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueued), r -> {
+            Thread thread = new Thread(r, "playout-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // the retention window starts when a job finishes and writes itself back
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, PlayoutJob>() {
+                    public long expireAfterCreate(String id, PlayoutJob job, long currentTime) {
+                        return job.isFinished() ? retention.toNanos() : Long.MAX_VALUE;
+                    }
+                    public long expireAfterUpdate(String id, PlayoutJob job, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, job, currentTime);
+                    }
+                    public long expireAfterRead(String id, PlayoutJob job, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                // unfinished jobs weigh nothing, so only finished jobs count toward the bound and can be evicted
+                .maximumWeight(maxRetained)
+                .weigher((String id, PlayoutJob job) -> job.isFinished() ? 1 : 0)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Queues a playout, see {@link SolvleService#playOutSolutions}
+     * @throws RejectedExecutionException if too many playouts are already queued
+     */
+    public PlayoutJob submit(String restrictionString, int length, String wordList, WordCalculationConfig wordCalculationConfig, int guess) {
+        PlayoutJob job = new PlayoutJob(UUID.randomUUID().toString());
+        jobs.put(job.id(), job);
+        try {
+            job.running(workers.submit(() -> run(job, restrictionString, length, wordList, wordCalculationConfig, guess)));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id());
+            throw new RejectedExecutionException("Too many playouts queued, try again later", e);
+        }
+        log.info("Queued playout {} for {} with configuration {}", job.id(), restrictionString, wordCalculationConfig);
+        return job;
+    }
+
+    private void run(PlayoutJob job, String restrictionString, int length, String wordList, WordCalculationConfig wordCalculationConfig, int guess) {
+        try {
+            if(!job.start()) {
+                log.info("Cancelled playout {} before it started", job.id());
+                return;
+            }
+            // this job holds one worker already, the others can help while they are idle
+            job.finish(solvleService.playOutSolutions(restrictionString, length, wordList, wordCalculationConfig, guess, job.progress(),
+                    workers, workers.getMaximumPoolSize() - 1));
+            log.info("Finished playout {}", job.id());
+        } catch (CancellationException e) {
+            job.cancelled();
+            log.info("Cancelled playout {} after {}/{} playouts", job.id(), job.progress().completed(), job.progress().total());
+        } catch (RuntimeException e) {
+            job.fail(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            log.warn("Playout {} failed", job.id(), e);
+        } finally {
+            jobs.put(job.id(), job);
+        }
+    }
+
+    /**
+     * Plays out on the calling thread with the help of idle workers, see {@link SolvleService#playOutSolutions}
+     */
+    public Set<PlayOut> playOut(String restrictionString, int length, String wordList, WordCalculationConfig wordCalculationConfig, int guess) {
+        return solvleService.playOutSolutions(restrictionString, length, wordList, wordCalculationConfig, guess, new PlayoutProgress(),
+                workers, workers.getMaximumPoolSize());
+    }
+
+    /**
+     * Returns the job, or null if it does not exist or its retention window has passed
+     */
+    public PlayoutJob get(String id) {
+        return jobs.getIfPresent(id);
+    }
+
+    /**
+     * Cancels the job if it has not finished
+     * @return the job, or null if it does not exist
+     */
+    public PlayoutJob cancel(String id) {
+        PlayoutJob job = jobs.getIfPresent(id);
+        if(job != null && !job.isFinished()) {
+            job.cancel();
+            jobs.put(id, job);
+        }
+        return job;
+    }
+
+    public Cache<?, ?> getJobCache() {
+        return jobs;
+    }
+
+    public int getRunningCount() {
+        return workers.getActiveCount();
+    }
+
+    public int getQueuedCount() {
+        return workers.getQueue().size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,46 @@
+package com.appsoil.solvle.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of one playout run, which can be watched and cancelled from other threads while it runs
+ */
+public final class PlayoutProgress {
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile int total;
+    private volatile boolean cancelled;
+
+    void start(int total) {
+        this.total = total;
+    }
+
+    int complete() {
+        return completed.incrementAndGet();
+    }
+
+    /**
+     * Number of pool words that have been played out against every solution
+     */
+    public int completed() {
+        return completed.get();
+    }
+
+    /**
+     * Number of pool words to play out, or 0 until the pool has been chosen
+     */
+    public int total() {
+        return total;
+    }
+
+    /**
+     * Stops the run before its next solve
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,44 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.data.Alphabet;
+import com.appsoil.solvle.data.Word;
+
+/**
+ * Positional score contribution of every letter at every position for one scoring request, built by
+ * {@link WordCalculationService#positionWeights}. Scoring a word is then one table read per letter, instead of
+ * comparing each letter against the counts of every position.
+ */
+final class PositionWeights {
+
+    private final int length;
+    private final double[][] unique;   // [position][letter], for letters that appear once in the scored word
+    private final double[][] repeated; // [position][letter], for letters that repeat in the scored word
+
+    PositionWeights(int length, double[][] unique, double[][] repeated) {
+        this.length = length;
+        this.unique = unique;
+        this.repeated = repeated;
+    }
+
+    /**
+     * Length of the words this table can score
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Sum of the weights of each letter of the word at its position. Only words with repeated letters need to
+     * look up how often each letter appears.
+     */
+    double score(Word word) {
+        boolean distinct = Long.bitCount(word.letterMask()) == length;
+        double score = 0.0;
+        for(int i = 0; i < length; i++) {
+            char c = word.charAt(i);
+            double[][] weights = distinct || word.count(c) < 2 ? unique : repeated;
+            score += weights[i][Alphabet.indexOf(c)];
+        }
+        return score;
+    }
+}
@@ -0,0 +1,88 @@
+package com.appsoil.solvle.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one computation per key at a time. A caller that asks for a key that is already being computed waits
+ * for that computation instead of starting its own, so a burst of identical cache misses costs one calculation.
+ * Nothing is kept once a computation finishes, caching the result is left to the caller.
+ *
+ * The first caller computes on its own thread and is never timed out. If it fails, each waiter gets its own
+ * {@link CompletionException} caused by that failure, so no exception instance is thrown on more than one thread,
+ * and the next caller starts a fresh computation.
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param timeout How long a caller waits for another caller's computation
+     */
+    public SingleFlight(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the result of the computation for this key, running it unless it is already running
+     * @throws SingleFlightTimeoutException if this caller waited longer than the timeout
+     * @throws CompletionException if this caller waited for a computation that failed
+     * @throws IllegalStateException if this caller was interrupted while waiting
+     */
+    public V run(K key, Supplier<V> computation) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if(running != null) {
+            coalesced.increment();
+            return await(key, running);
+        }
+        try {
+            V value = computation.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private V await(K key, CompletableFuture<V> running) {
+        try {
+            return running.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new SingleFlightTimeoutException("Timed out after " + timeout + " waiting for " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + key, e);
+        } catch (ExecutionException e) {
+            // the computing caller already threw the failure itself, waiters get it as a cause
+            throw new CompletionException("Computation of " + key + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Number of computations running
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Number of callers that waited for another caller's computation instead of running their own
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+}
@@ -0,0 +1,12 @@
+package com.appsoil.solvle.service;
+
+/**
+ * Thrown to a caller of {@link SingleFlight#run} that gave up waiting for another caller's computation. The
+ * computation itself carries on, so the same request can succeed once it has finished.
+ */
+public class SingleFlightTimeoutException extends RuntimeException {
+
+    public SingleFlightTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
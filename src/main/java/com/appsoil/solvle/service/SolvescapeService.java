@@ -26,7 +26,7 @@ public class SolvescapeService {
         Map<Integer, List<String>> options = new ConcurrentSkipListMap<>((i, j) -> Integer.compare(j, i));
 
         IntStream.rangeClosed(3, availableLetters.length()).parallel().forEach(i -> options.put(i,
-                bigDictionary.wordsBySize().get(i).stream()
+                bigDictionary.wordsOfLength(i).stream()
                         .filter(w -> contains(available, w))
                         .map(Word::word)
                         .sorted().collect(Collectors.toList())));
@@ -35,12 +35,12 @@ public class SolvescapeService {
     }
 
     public boolean contains(Word available, Word other){
-        Map<Character, Integer> otherLetters = other.letters();
-        Map<Character, Integer> availableLetters = available.letters();
-        for(Character c : otherLetters.keySet()){
-            if(!availableLetters.containsKey(c)) {
-                return false;
-            } else if (availableLetters.get(c) < otherLetters.get(c)){
+        //cheap rejection before counting duplicates
+        if((other.letterMask() & ~available.letterMask()) != 0) {
+            return false;
+        }
+        for(char c : other.distinctLetters()){
+            if (available.count(c) < other.count(c)){
                 return false;
             }
         }
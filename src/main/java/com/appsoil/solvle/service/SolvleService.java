@@ -7,13 +7,24 @@ import com.appsoil.solvle.controller.WordScoreDTO;
 import com.appsoil.solvle.data.Dictionary;
 import com.appsoil.solvle.service.solvers.RemainingSolver;
 import com.appsoil.solvle.service.solvers.Solver;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.DoubleAdder;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
@@ -30,32 +41,73 @@ public class SolvleService {
 
     private final int MAX_RESULT_LIST_SIZE = 100;
     private final int FISHING_WORD_SIZE = 200;
-    private final int SHARED_POSITION_LIMIT = 1000;
+
+    // transposition table of analyses by remaining candidates, shared by requests, playouts and solvers
+    private final Cache<CandidateAnalysis.Key, CandidateAnalysis> candidateCache;
+
+    // runs the words of dictionary solves, which each still score their guesses on the common pool
+    private final ForkJoinPool solveExecutor;
+    private final String solveCheckpointDir;
+    private final int maxScoreBatch;
+    private final CacheManager cacheManager;
+
+    // work in progress, published as gauges
+    private final AtomicInteger analysesInFlight = new AtomicInteger();
+    private final AtomicInteger dictionarySolvesInFlight = new AtomicInteger();
+
+    // concurrent cache misses for the same canonical key share one calculation
+    private final SingleFlight<Object, SolvleDTO> analysisFlights;
+    private final SingleFlight<Object, WordScoreDTO> scoreFlights;
 
     public SolvleService(@Qualifier("simpleDictionary") Dictionary simpleDictionary,
                          @Qualifier("reducedDictionary") Dictionary reducedDictionary,
                          @Qualifier("bigDictionary") Dictionary bigDictionary,
                          @Qualifier("hugeDictionary") Dictionary hugeDictionary,
-                         @Qualifier("icelandicDictionary") Dictionary icelandDictionary) {
+                         @Qualifier("icelandicDictionary") Dictionary icelandDictionary,
+                         @Value("${solvle.solve.threads:0}") int solveThreads,
+                         @Value("${solvle.solve.checkpoint-dir:}") String solveCheckpointDir,
+                         @Value("${solvle.coalesce.timeout:PT30S}") Duration coalesceTimeout,
+                         @Value("${solvle.score.max-batch:10000}") int maxScoreBatch,
+                         @Qualifier("candidateCacheBuilder") Caffeine<Object, Object> candidateCacheBuilder,
+                         CacheManager cacheManager) {
         this.simpleDictionary = simpleDictionary;
         this.bigDictionary = bigDictionary;
         this.hugeDictionary = hugeDictionary;
         this.reducedDictionary = reducedDictionary;
         this.icelandDictionary = icelandDictionary;
+        this.solveExecutor = solveThreads > 0 ? new ForkJoinPool(solveThreads) : ForkJoinPool.commonPool();
+        this.solveCheckpointDir = solveCheckpointDir;
+        this.analysisFlights = new SingleFlight<>(coalesceTimeout);
+        this.scoreFlights = new SingleFlight<>(coalesceTimeout);
+        this.maxScoreBatch = maxScoreBatch;
+        this.candidateCache = candidateCacheBuilder.build();
+        this.cacheManager = cacheManager;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // the common pool is shared with the rest of the JVM and ignores shutdown
+        if(solveExecutor != ForkJoinPool.commonPool()) {
+            solveExecutor.shutdownNow();
+        }
     }
 
-    @Cacheable("validWords")
+    @Cacheable(value = "validWords", keyGenerator = "canonicalRestrictionKeyGenerator")
     public SolvleDTO getWordAnalysis(String restrictionString, int length, String wordList, WordCalculationConfig wordCalculationConfig) {
 
         log.debug("Searching for words of length {}", length);
 
-        // parse the string to identify required letters and position exclusions
-        WordRestrictions wordRestrictions = new WordRestrictions(restrictionString.toLowerCase());
-        SolvleDTO result = getWordAnalysis(wordRestrictions, length, wordList, wordCalculationConfig);
-
-        log.info("Found {} length {} matches for {}", result.totalWords(), length, restrictionString);
+        // load the words first, so any letters they add to the alphabet are known when parsing the restrictions
+        Set<Word> wordSet = getPrimarySet(wordList, length);
+        Set<Word> fishingSet = getFishingSet(wordList, length);
 
-        return result;
+        // parse the string to identify required letters and position exclusions, in the same form the result is cached under
+        String canonicalRestrictions = WordRestrictions.canonicalize(restrictionString.toLowerCase());
+        return analysisFlights.run(SimpleKeyGenerator.generateKey(canonicalRestrictions, length, wordList, wordCalculationConfig), () -> {
+            SolvleDTO result = getWordAnalysis(new WordRestrictions(canonicalRestrictions), wordSet, fishingSet, wordCalculationConfig);
+            log.info("Found {} length {} matches for {}", result.totalWords(), length, restrictionString);
+            return result;
+        });
     }
 
     public SolvleDTO getWordAnalysis(WordRestrictions wordRestrictions, int length, String wordList, WordCalculationConfig wordCalculationConfig) {
@@ -69,18 +121,36 @@ public class SolvleService {
     public SolvleDTO getWordAnalysis(WordRestrictions wordRestrictions, Set<Word> wordSet, Set<Word> fishingSet, WordCalculationConfig wordCalculationConfig) {
 
         WordCalculationService wordCalculationService = new WordCalculationService(wordCalculationConfig);
-
         // find all the valid words in our dictionary for this restriction string
         Set<Word> containedWords = wordCalculationService.findMatchingWords(wordSet, wordRestrictions);
-        if(wordCalculationConfig.hardMode()) {
-            //for hard mode, we also have to filter the fishing word list the same way
-            fishingSet = wordCalculationService.findMatchingWords(fishingSet, wordRestrictions);
+        Set<Word> fishingWords = wordCalculationConfig.hardMode()
+                ? wordCalculationService.findMatchingWords(fishingSet, wordRestrictions) //for hard mode, we also have to filter the fishing word list the same way
+                : fishingSet;
+
+        // other restrictions may already have narrowed things down to these same candidates
+        if(fishingWords instanceof IndexedWordSet indexedFishing) {
+            return candidateAnalysis(containedWords, wordRestrictions, wordCalculationConfig).analysis(indexedFishing.fingerprint(),
+                    () -> getWordAnalysis(wordCalculationService, wordRestrictions, containedWords, fishingWords, wordCalculationConfig));
+        }
+        return getWordAnalysis(wordCalculationService, wordRestrictions, containedWords, fishingWords, wordCalculationConfig);
+    }
+
+    // counted here rather than per request, so analyses answered from the candidate cache are not in flight
+    private SolvleDTO getWordAnalysis(WordCalculationService wordCalculationService, WordRestrictions wordRestrictions, Set<Word> containedWords, Set<Word> fishingSet, WordCalculationConfig wordCalculationConfig) {
+        analysesInFlight.incrementAndGet();
+        try {
+            return calculateWordAnalysis(wordCalculationService, wordRestrictions, containedWords, fishingSet, wordCalculationConfig);
+        } finally {
+            analysesInFlight.decrementAndGet();
         }
+    }
+
+    private SolvleDTO calculateWordAnalysis(WordCalculationService wordCalculationService, WordRestrictions wordRestrictions, Set<Word> containedWords, Set<Word> fishingSet, WordCalculationConfig wordCalculationConfig) {
 
         // check for common positions within contained words
         SharedPositions sharedPositions = null;
         Map<Character, DoubleAdder> sharedPositionBonus = new HashMap<>();
-        if(wordCalculationConfig.rutBreakThreshold() > 1 && containedWords.size() < SHARED_POSITION_LIMIT) {
+        if(wordCalculationConfig.rutBreakThreshold() > 1) {
             sharedPositions = wordCalculationService.findSharedWordRestrictions(containedWords);
 
             if(wordCalculationConfig.rutBreakMultiplier() > 0) {
@@ -98,21 +168,23 @@ public class SolvleService {
         // calculate how many words in the valid word set contain each character and
         //   then generate scores for words in the valid list and fishing list
         if(wordCalculationConfig.rightLocationMultiplier() == 0) {
-            characterCounts = wordCalculationService.calculateCharacterCounts(containedWords);
+            LetterCounts counts = wordCalculationService.calculateCharacterCounts(containedWords);
 
             wordFrequencyScores = wordCalculationService
-                    .calculateViableWords(containedWords, characterCounts, containedWords.size(), 0, MAX_RESULT_LIST_SIZE, sharedPositionBonus);
+                    .calculateViableWords(containedWords, counts, containedWords.size(), 0, MAX_RESULT_LIST_SIZE, sharedPositionBonus);
             fishingWordScores = containedWords.size() < 1 ? new HashSet<>() : wordCalculationService
-                    .calculateFishingWords(fishingSet, characterCounts, containedWords.size(), FISHING_WORD_SIZE, wordRestrictions.requiredLetters(), sharedPositionBonus);
+                    .calculateFishingWords(fishingSet, counts, containedWords.size(), FISHING_WORD_SIZE, wordRestrictions.requiredLetters(), sharedPositionBonus);
+            characterCounts = counts.toMap();
         } else {
-            Map<Integer, Map<Character, LongAdder>> positionalCharCounts = wordCalculationService.calculateCharacterCountsByPosition(containedWords);
+            PositionLetterCounts positionalCharCounts = wordCalculationService.calculateCharacterCountsByPosition(containedWords);
             wordFrequencyScores = wordCalculationService
                     .calculateViableWordsByPosition(containedWords, positionalCharCounts, containedWords, 0, MAX_RESULT_LIST_SIZE, wordRestrictions, sharedPositionBonus);
             fishingWordScores = containedWords.size() < 1 ? new HashSet<>() : wordCalculationService
                     .calculateFishingWordsByPosition(fishingSet, positionalCharCounts, containedWords, FISHING_WORD_SIZE, wordRestrictions, sharedPositionBonus);
 
-            //merge positional char counts for use in the DTO
-            characterCounts = mergeCharacterCounts(positionalCharCounts);
+            // this returns slightly higher values than the original 'words with characters' map, because words with
+            // duplicate chars are represented multiple times in the countsByPos map.
+            characterCounts = positionalCharCounts.merged().toMap();
         }
 
         // generate words that optimally partition the viable set
@@ -138,43 +210,125 @@ public class SolvleService {
         return new SolvleDTO("", wordFrequencyScores, fishingWordScores, remainingWords, containedWords.size(), characterCounts, knownPositions);
     }
 
-    @Cacheable("wordScore")
+    @Cacheable(value = "wordScore", keyGenerator = "canonicalRestrictionKeyGenerator")
     public WordScoreDTO getScore(String restrictionString, String wordToScore, String wordList, WordCalculationConfig wordCalculationConfig) {
-        WordRestrictions wordRestrictions = new WordRestrictions(restrictionString.toLowerCase());
-
-        Word word = new Word(wordToScore, 0);
         Set<Word> wordSet = getPrimarySet(wordList, wordToScore.length());
+        String canonicalRestrictions = WordRestrictions.canonicalize(restrictionString.toLowerCase());
+        return scoreFlights.run(SimpleKeyGenerator.generateKey(canonicalRestrictions, wordToScore, wordList, wordCalculationConfig),
+                () -> getScore(new WordRestrictions(canonicalRestrictions), wordToScore, wordSet, wordCalculationConfig));
+    }
 
+    private WordScoreDTO getScore(WordRestrictions wordRestrictions, String wordToScore, Set<Word> wordSet, WordCalculationConfig wordCalculationConfig) {
         //get the counts
         WordCalculationService wordCalculationService = new WordCalculationService(wordCalculationConfig);
         Set<Word> containedWords = wordCalculationService.findMatchingWords(wordSet, wordRestrictions);
+        CandidateAnalysis candidates = candidateAnalysis(containedWords, wordRestrictions, wordCalculationConfig);
 
+        return getScore(wordCalculationService, wordRestrictions, containedWords, candidates, new Word(wordToScore, 0), wordCalculationConfig);
+    }
+
+    /**
+     * Checks a batch of scores can be calculated, before any of it is
+     * @throws IllegalArgumentException if either list is empty or has blanks, there are more than solvle.score.max-batch pairs, or
+     *         the word list has no words of a word's length
+     */
+    public void validateScores(List<String> restrictionStrings, List<String> wordsToScore, String wordList) {
+        if(restrictionStrings == null || restrictionStrings.isEmpty() || wordsToScore == null || wordsToScore.isEmpty()) {
+            throw new IllegalArgumentException("At least one restriction string and one word are required");
+        }
+        if(restrictionStrings.stream().anyMatch(Objects::isNull) || wordsToScore.stream().anyMatch(word -> word == null || word.isBlank())) {
+            throw new IllegalArgumentException("Restriction strings and words cannot be empty");
+        }
+        if((long) restrictionStrings.size() * wordsToScore.size() > maxScoreBatch) {
+            throw new IllegalArgumentException("At most " + maxScoreBatch + " scores can be requested at once");
+        }
+        // loading every length also adds any letters they have to the alphabet before the restrictions are parsed
+        wordsToScore.stream().map(String::length).distinct().forEach(length -> {
+            if(getPrimarySet(wordList, length) == null) {
+                throw new IllegalArgumentException("No " + length + "-letter words in " + wordList);
+            }
+        });
+    }
+
+    /**
+     * Scores every word against every set of restrictions. Each pair is looked up in, and stored to, the same wordScore
+     * cache and coalesced with the same calculations as {@link #getScore}. On a miss the dictionary is filtered and the
+     * counts each score needs are calculated once per set of restrictions and word length instead of once per word.
+     * @return scores by restriction string and then word, in the order they were provided, with the same values
+     *         {@link #getScore} would return for each pair
+     * @throws IllegalArgumentException if the batch fails {@link #validateScores}
+     */
+    public Map<String, Map<String, WordScoreDTO>> getScores(List<String> restrictionStrings, List<String> wordsToScore, String wordList, WordCalculationConfig wordCalculationConfig) {
+        validateScores(restrictionStrings, wordsToScore, wordList);
+
+        org.springframework.cache.Cache wordScoreCache = cacheManager.getCache("wordScore");
+        WordCalculationService wordCalculationService = new WordCalculationService(wordCalculationConfig);
+        Map<String, Map<String, WordScoreDTO>> scoresByCanonical = new HashMap<>();
+        Map<String, Map<String, WordScoreDTO>> scores = new LinkedHashMap<>();
+        for(String restrictionString : restrictionStrings) {
+            String canonicalRestrictions = WordRestrictions.canonicalize(restrictionString.toLowerCase());
+            scores.put(restrictionString, scoresByCanonical.computeIfAbsent(canonicalRestrictions, c -> {
+                WordRestrictions wordRestrictions = new WordRestrictions(canonicalRestrictions);
+                Map<Integer, Set<Word>> containedWords = new HashMap<>();
+                Map<Integer, CandidateAnalysis> candidates = new HashMap<>();
+                Map<String, WordScoreDTO> wordScores = new LinkedHashMap<>();
+                for(String wordToScore : wordsToScore) {
+                    String word = wordToScore.toLowerCase();
+                    // the same key canonicalRestrictionKeyGenerator gives getScore
+                    Object key = SimpleKeyGenerator.generateKey(canonicalRestrictions, word, wordList, wordCalculationConfig);
+                    WordScoreDTO score = wordScoreCache == null ? null : wordScoreCache.get(key, WordScoreDTO.class);
+                    if(score == null) {
+                        score = scoreFlights.run(key, () -> {
+                            int length = word.length();
+                            Set<Word> contained = containedWords.computeIfAbsent(length, l -> wordCalculationService.findMatchingWords(getPrimarySet(wordList, l), wordRestrictions));
+                            CandidateAnalysis analysis = candidates.computeIfAbsent(length, l -> candidateAnalysis(contained, wordRestrictions, wordCalculationConfig));
+                            return getScore(wordCalculationService, wordRestrictions, contained, analysis, new Word(word, 0), wordCalculationConfig);
+                        });
+                        if(wordScoreCache != null) {
+                            wordScoreCache.put(key, score);
+                        }
+                    }
+                    wordScores.put(wordToScore, score);
+                }
+                return wordScores;
+            }));
+        }
+        return scores;
+    }
+
+    private WordScoreDTO getScore(WordCalculationService wordCalculationService, WordRestrictions wordRestrictions, Set<Word> containedWords,
+                                  CandidateAnalysis candidates, Word word, WordCalculationConfig wordCalculationConfig) {
         double score;
         double remaining;
 
         // generate a per-character bonus score based on their frequency in the shared position sets
-        Map<Character, DoubleAdder> sharedPositionBonus = new HashMap<>();
-        if(wordCalculationConfig.rutBreakThreshold() > 1 && wordCalculationConfig.rutBreakMultiplier() > 0 && containedWords.size() < SHARED_POSITION_LIMIT) {
-            sharedPositionBonus = wordCalculationService.generateSharedCharacterWeights(wordCalculationService.findSharedWordRestrictions(containedWords), wordRestrictions);
-        }
+        Map<Character, DoubleAdder> sharedPositionBonus = candidates.sharedPositionBonus(() -> {
+            if(wordCalculationConfig.rutBreakThreshold() > 1 && wordCalculationConfig.rutBreakMultiplier() > 0) {
+                return wordCalculationService.generateSharedCharacterWeights(wordCalculationService.findSharedWordRestrictions(containedWords), wordRestrictions);
+            }
+            return new HashMap<>();
+        });
 
         if(wordCalculationConfig.rightLocationMultiplier() == 0) {
-            var counts = wordCalculationService.removeRequiredLettersFromCounts(wordCalculationService.calculateCharacterCounts(containedWords), wordRestrictions.requiredLetters());
+            LetterCounts counts = candidates.letterCounts(() ->
+                    wordCalculationService.removeRequiredLettersFromCounts(wordCalculationService.calculateCharacterCounts(containedWords), wordRestrictions.requiredLetters()));
             score = wordCalculationService.calculateFreqScore(word,
                     counts,
                     containedWords.size(),
-                    wordToScore.length() - wordRestrictions.letterPositions().keySet().size(), sharedPositionBonus);
+                    word.getLength() - wordRestrictions.letterPositions().keySet().size(), sharedPositionBonus);
         } else {
-            var counts = wordCalculationService.removeRequiredLettersFromCountsByPosition(wordCalculationService.calculateCharacterCountsByPosition(containedWords), wordRestrictions);
+            PositionLetterCounts counts = candidates.positionCounts(() ->
+                    wordCalculationService.removeRequiredLettersFromCountsByPosition(wordCalculationService.calculateCharacterCountsByPosition(containedWords), wordRestrictions));
             score = wordCalculationService.calculateFreqScoreByPosition(word,
                     counts,
                     containedWords,
-                    wordToScore.length() - wordRestrictions.letterPositions().keySet().size(),
+                    word.getLength() - wordRestrictions.letterPositions().keySet().size(),
                     wordRestrictions, sharedPositionBonus
                     );
         }
 
-        remaining = wordCalculationService.getPartitionStatsForWord(wordRestrictions, containedWords, word).getMean();
+        PartitionStats partitionStats = candidates.partitionStats(word.word(), () -> wordCalculationService.getPartitionStatsForWord(wordRestrictions, containedWords, word));
+        remaining = partitionStats == null ? 0 : partitionStats.mean();
 
        return new WordScoreDTO(remaining, score);
     }
@@ -190,6 +344,23 @@ public class SolvleService {
      * @return
      */
     public Set<PlayOut> playOutSolutions(String restrictionString, int length, String wordList, WordCalculationConfig wordCalculationConfig, int guess) {
+        return playOutSolutions(restrictionString, length, wordList, wordCalculationConfig, guess, new PlayoutProgress());
+    }
+
+    /**
+     * Plays out solutions the same way, reporting each finished pool word to progress
+     * @throws java.util.concurrent.CancellationException if progress is cancelled before the playouts finish
+     */
+    public Set<PlayOut> playOutSolutions(String restrictionString, int length, String wordList, WordCalculationConfig wordCalculationConfig, int guess, PlayoutProgress progress) {
+        return playOutSolutions(restrictionString, length, wordList, wordCalculationConfig, guess, progress, Runnable::run, 0);
+    }
+
+    /**
+     * Plays out solutions the same way, with up to helperCount tasks on the helpers executor joining the calling
+     * thread, see {@link WordCalculationService#getWordsBySolveLength}
+     */
+    public Set<PlayOut> playOutSolutions(String restrictionString, int length, String wordList, WordCalculationConfig wordCalculationConfig, int guess, PlayoutProgress progress,
+                                         Executor helpers, int helperCount) {
 
         WordCalculationService wordCalculationService = new WordCalculationService(wordCalculationConfig);
         WordRestrictions wordRestrictions = new WordRestrictions(restrictionString);
@@ -207,24 +378,59 @@ public class SolvleService {
 
 
         Set<PlayOut> averageSolveLengths = wordCalculationService.getWordsBySolveLength(
-                containedWords, fishingSet, wordPool, solver, wordRestrictions, guess);
+                containedWords, fishingSet, wordPool, solver, wordRestrictions, guess, progress, helpers, helperCount);
         averageSolveLengths.forEach(s -> {
             log.info(s);
         });
         return averageSolveLengths;
     }
 
-    private Map<Character, LongAdder> mergeCharacterCounts(Map<Integer, Map<Character, LongAdder>> countsByPos) {
-        // this returns slightly higher values than the original 'words with characters' map, because words with
-        // duplicate chars are represented multiple times in the countsByPos map. The information about words
-        // with duplicates is lost at this point and not worth recalculating.
-        return countsByPos.values().stream().flatMap(map -> map.entrySet().stream()).collect(Collectors.toMap(e -> e.getKey(), e -> e.getValue(), (v1, v2) -> {
-            v1.add(v2.longValue());
-            return v1;
-        }));
+    /**
+     * Returns the shared analysis entry for these candidates, or a private one if the candidates did not come from
+     * an indexed dictionary and so cannot be fingerprinted.
+     */
+    private CandidateAnalysis candidateAnalysis(Set<Word> containedWords, WordRestrictions wordRestrictions, WordCalculationConfig wordCalculationConfig) {
+        if(containedWords instanceof IndexedWordSet indexedWords) {
+            // weigh the entry again each time it stores something, since its weight was taken while it was empty
+            return candidateCache.get(CandidateAnalysis.Key.of(indexedWords, wordRestrictions, wordCalculationConfig),
+                    key -> new CandidateAnalysis(() -> candidateCache.asMap().computeIfPresent(key, (k, analysis) -> analysis)));
+        }
+        return new CandidateAnalysis();
+    }
+
+    /**
+     * Drops the analyses of candidates from a released dictionary bucket. Their keys can never match again once
+     * the length is reloaded, and they would keep the released words reachable until they expired.
+     */
+    @EventListener
+    public void dictionaryEvicted(DictionaryEvictedEvent event) {
+        candidateCache.asMap().keySet().removeIf(key -> event.covers(key.candidates()));
     }
 
-    private Set<Word> getPrimarySet(String wordList, int length) {
+    public Cache<?, ?> getCandidateCache() {
+        return candidateCache;
+    }
+
+    /**
+     * Number of word analyses being calculated, including those made by playouts and solvers
+     */
+    public int getAnalysesInFlight() {
+        return analysesInFlight.get();
+    }
+
+    public int getDictionarySolvesInFlight() {
+        return dictionarySolvesInFlight.get();
+    }
+
+    public SingleFlight<?, ?> getAnalysisFlights() {
+        return analysisFlights;
+    }
+
+    public SingleFlight<?, ?> getScoreFlights() {
+        return scoreFlights;
+    }
+
+    Set<Word> getPrimarySet(String wordList, int length) {
         Dictionary dictionary = switch (wordList) {
             case "reduced" -> length == 5 ? reducedDictionary : bigDictionary;
             case "simple" -> length == 5 ? simpleDictionary : bigDictionary;
@@ -232,10 +438,10 @@ public class SolvleService {
             case "iceland" -> icelandDictionary;
             default -> bigDictionary;
         };
-        return dictionary.wordsBySize().get(length);
+        return dictionary.wordsOfLength(length);
     }
 
-    private Set<Word> getFishingSet(String wordList, int length) {
+    Set<Word> getFishingSet(String wordList, int length) {
         // use the big dictionary for fishing simple words, because answers are not required to be valid
         Dictionary fishingWordDictionary = switch(wordList) {
             case "simple" -> /*length == 5 ? simpleGuessesDictionary :*/ bigDictionary;
@@ -243,7 +449,7 @@ public class SolvleService {
             case "iceland" -> icelandDictionary;
             default -> bigDictionary;
         };
-        return fishingWordDictionary.wordsBySize().get(length);
+        return fishingWordDictionary.wordsOfLength(length);
     }
 
     public SharedPositions findSharedWordRestrictions(String wordList, int length) {
@@ -265,6 +471,16 @@ public class SolvleService {
      * @return
      */
     public Map<String, List<String>> solveDictionary(Solver solver, String firstWord, WordCalculationConfig wordCalculationConfig, String wordList, int length) {
+        return startDictionarySolve(solver, firstWord, wordCalculationConfig, wordList, length).result().join().solutions();
+    }
+
+    /**
+     * Starts solving for every word of this length in the word list on the solve executor. Progress is checkpointed
+     * to solvle.solve.checkpoint-dir if it is set, and a later solve with the same solver, first word, config and
+     * word list resumes from the checkpoint.
+     * @return the running solve, for progress, cancellation and the solutions with their summary statistics
+     */
+    public DictionarySolve startDictionarySolve(Solver solver, String firstWord, WordCalculationConfig wordCalculationConfig, String wordList, int length) {
 
         Set<Word> words = getPrimarySet(wordList, length);
 
@@ -276,13 +492,12 @@ public class SolvleService {
         final String startingWord = firstWord;
         log.info("Solving {}-letter {}-word dictionary with starting word {}", length, words.size(), firstWord);
 
-        Map<String, List<String>> outcome = new ConcurrentHashMap<>();
-        words.stream().forEach( word -> {
-            List<String> guesses = solveWord(solver, word, startingWord, wordList);
-            outcome.put(word.word(), guesses);
-        });
-
-        return outcome;
+        // the solver also guesses from the fishing words, so a change to either list starts a new checkpoint
+        long fingerprint = StrategyTree.fingerprint(words) * 31 + StrategyTree.fingerprint(getFishingSet(wordList, length));
+        Path checkpoint = solveCheckpointDir.isBlank() ? null : Path.of(solveCheckpointDir, String.format("%s-%d-%s-%s-%08x-%016x-v%d.txt",
+                wordList, length, startingWord, solver.getClass().getSimpleName(), wordCalculationConfig.toString().hashCode(),
+                fingerprint, DictionarySolve.FORMAT_VERSION));
+        return start(new DictionarySolve(words, word -> solveWord(solver, word, startingWord, wordList), checkpoint, fingerprint));
     }
 
     public Map<String, List<String>> solveDictionary(Solver solver, List<String> previousGuesses, WordCalculationConfig wordCalculationConfig, String startingRestrictions, String wordList) {
@@ -290,13 +505,22 @@ public class SolvleService {
         SolvleDTO guess = getWordAnalysis(new WordRestrictions(startingRestrictions.toLowerCase()), words, getFishingSet("simple", 5), wordCalculationConfig);
         final String firstWord = guess.fishingWords().stream().findFirst().get().word();
 
-        Map<String, List<String>> outcome = new ConcurrentHashMap<>();
-        words.stream().forEach( word -> {
+        return start(new DictionarySolve(words, word -> {
             List<String> guesses = new ArrayList<>(previousGuesses);
             guesses.addAll(solveWord(solver, word, firstWord, wordList));
-            outcome.put(word.word(), guesses);
-        });
-        return outcome;
+            return guesses;
+        }, null, 0)).result().join().solutions();
+    }
+
+    private DictionarySolve start(DictionarySolve solve) {
+        dictionarySolvesInFlight.incrementAndGet();
+        try {
+            solve.start(solveExecutor).result().whenComplete((result, e) -> dictionarySolvesInFlight.decrementAndGet());
+        } catch (RuntimeException e) {
+            dictionarySolvesInFlight.decrementAndGet();
+            throw e;
+        }
+        return solve;
     }
 
 
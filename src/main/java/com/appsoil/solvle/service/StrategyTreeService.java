@@ -0,0 +1,160 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.data.StrategyTree;
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.service.solvers.RemainingSolver;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Answers solve requests for the preset configs in {@link WordCalculationConfig#DEFAULT_CONFIGS} from strategy trees
+ * built ahead of time, and falls back to solving live for custom configs, a chosen first word, or word lists that
+ * have no tree. Trees are built by {@link #build} and read from solvle.strategy.dir the first time they are needed,
+ * and read again whenever their file changes, so trees the offline builder writes later are picked up without a restart.
+ */
+@Service
+@Log4j2
+public class StrategyTreeService {
+
+    // bump when the solver or its scoring changes the guesses it makes, so trees built before are rebuilt
+    static final int SOLVER_VERSION = 1;
+
+    private final SolvleService solvleService;
+    private final String strategyDir;
+
+    // trees by preset, word list and length, with the modification time of the file each was read from
+    private final Map<String, LoadedTree> trees = new ConcurrentHashMap<>();
+
+    // tree is null if the file was not a current tree, so it is only read again once it changes
+    private record LoadedTree(StrategyTree tree, FileTime modified) {}
+
+    public StrategyTreeService(SolvleService solvleService, @Value("${solvle.strategy.dir:}") String strategyDir) {
+        this.solvleService = solvleService;
+        this.strategyDir = strategyDir;
+    }
+
+    /**
+     * Returns the guesses the {@link RemainingSolver} makes for this solution, using a strategy tree if the config
+     * is a preset
+     */
+    public List<String> solveWord(WordCalculationConfig config, Word word, String firstWord, String wordList) {
+        if(firstWord.isBlank()) {
+            String preset = presetName(config);
+            if(preset != null) {
+                StrategyTree tree = tree(preset, wordList, word.getLength());
+                List<String> guesses = tree == null ? null : tree.solve(word);
+                if(guesses != null) {
+                    return guesses;
+                }
+            }
+        }
+        return solvleService.solveWord(new RemainingSolver(solvleService, config), word, firstWord, wordList);
+    }
+
+    /**
+     * Solves every word of this length in the word list with the preset and writes the resulting strategy tree
+     * @throws IllegalArgumentException if the preset or word list does not exist
+     * @throws UncheckedIOException if solvle.strategy.dir is set and the tree could not be written there
+     */
+    public StrategyTree build(String preset, String wordList, int length) {
+        WordCalculationConfig config = WordCalculationConfig.DEFAULT_CONFIGS.get(preset);
+        Set<Word> words = solvleService.getPrimarySet(wordList, length);
+        if(config == null || words == null) {
+            throw new IllegalArgumentException("No " + length + "-letter " + wordList + " words or preset " + preset);
+        }
+        log.info("Building {} strategy tree for {}-letter {} words", preset, length, wordList);
+
+        RemainingSolver solver = new RemainingSolver(solvleService, config);
+        Map<String, List<String>> solutions = new DictionarySolve(words, word -> solvleService.solveWord(solver, word, "", wordList), null, 0)
+                .start(ForkJoinPool.commonPool()).result().join().solutions();
+        StrategyTree tree = StrategyTree.of(solutions, strategy(config), fingerprint(wordList, length));
+        FileTime modified = null;
+        if(!strategyDir.isBlank()) {
+            Path file = file(preset, wordList, length);
+            try {
+                tree.write(file);
+                modified = Files.getLastModifiedTime(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write strategy tree " + file, e);
+            }
+        }
+        trees.put(key(preset, wordList, length), new LoadedTree(tree, modified));
+        return tree;
+    }
+
+    /**
+     * The current tree for this preset, or null if there is none. The file is checked on every call, but only read
+     * when it changed since it was last read.
+     */
+    private StrategyTree tree(String preset, String wordList, int length) {
+        String key = key(preset, wordList, length);
+        LoadedTree loaded = trees.get(key);
+        if(strategyDir.isBlank()) {
+            return loaded == null ? null : loaded.tree();
+        }
+
+        Path file = file(preset, wordList, length);
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            // nothing is remembered for a missing file, so one written later is found
+            trees.remove(key);
+            return null;
+        }
+        if(loaded != null && modified.equals(loaded.modified())) {
+            return loaded.tree();
+        }
+        if(solvleService.getPrimarySet(wordList, length) == null) {
+            return null;
+        }
+
+        // read outside the map, two requests racing on a changed file both read it and either result is current
+        StrategyTree tree = StrategyTree.read(file, strategy(WordCalculationConfig.DEFAULT_CONFIGS.get(preset)), fingerprint(wordList, length));
+        if(tree != null) {
+            log.info("Read {}-node {} strategy tree for {}-letter {} words", tree.size(), preset, length, wordList);
+        }
+        trees.put(key, new LoadedTree(tree, modified));
+        return tree;
+    }
+
+    /**
+     * The name of the preset this config is, or null for custom configs
+     */
+    static String presetName(WordCalculationConfig config) {
+        return WordCalculationConfig.DEFAULT_CONFIGS.entrySet().stream()
+                .filter(e -> e.getValue().equals(config))
+                .map(Map.Entry::getKey)
+                .findFirst().orElse(null);
+    }
+
+    private static String strategy(WordCalculationConfig config) {
+        return RemainingSolver.class.getSimpleName() + " v" + SOLVER_VERSION + " " + config;
+    }
+
+    // solutions and guesses both come from these lists
+    private long fingerprint(String wordList, int length) {
+        return StrategyTree.fingerprint(solvleService.getPrimarySet(wordList, length)) * 31
+                + StrategyTree.fingerprint(solvleService.getFishingSet(wordList, length));
+    }
+
+    Path file(String preset, String wordList, int length) {
+        return Path.of(strategyDir, String.format("%s-%s-%d-v%d.%d.tree", preset, wordList, length, StrategyTree.VERSION, SOLVER_VERSION));
+    }
+
+    private static String key(String preset, String wordList, int length) {
+        return preset + "/" + wordList + "/" + length;
+    }
+}
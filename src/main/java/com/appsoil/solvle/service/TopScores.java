@@ -0,0 +1,79 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.data.WordFrequencyScore;
+
+import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * Keeps the best scores seen so far in a bounded heap, so ranking a large word list only holds and allocates the
+ * entries that can still make the result. Ordering is the same as {@link WordFrequencyScore#compareTo}: higher
+ * scores first, ties broken by natural ordering.
+ */
+final class TopScores {
+
+    private final int limit;
+    private final PriorityQueue<WordFrequencyScore> heap; // worst kept score at the head
+
+    private TopScores(int limit) {
+        this.limit = limit;
+        this.heap = new PriorityQueue<>(Math.max(1, limit), Collections.reverseOrder());
+    }
+
+    /**
+     * Scores every word and collects the top entries into a sorted set. Parallel streams fill one heap per thread
+     * and merge them at the end.
+     * @param limit Maximum number of entries to keep
+     * @param scorer Calculates the score of a word
+     */
+    static Collector<Word, TopScores, TreeSet<WordFrequencyScore>> collector(int limit, ToDoubleFunction<Word> scorer) {
+        return Collector.of(
+                () -> new TopScores(limit),
+                (top, word) -> top.offer(word.getOrder(), word, scorer.applyAsDouble(word)),
+                TopScores::merge,
+                TopScores::toSet);
+    }
+
+    private void offer(int naturalOrdering, Word word, double score) {
+        if(heap.size() < limit) {
+            heap.add(new WordFrequencyScore(naturalOrdering, word.word(), score));
+        } else if(limit > 0 && beats(score, naturalOrdering, heap.peek())) {
+            heap.poll();
+            heap.add(new WordFrequencyScore(naturalOrdering, word.word(), score));
+        }
+    }
+
+    private void offer(WordFrequencyScore score) {
+        if(heap.size() < limit) {
+            heap.add(score);
+        } else if(limit > 0 && beats(score.freqScore(), score.naturalOrdering(), heap.peek())) {
+            heap.poll();
+            heap.add(score);
+        }
+    }
+
+    private TopScores merge(TopScores other) {
+        TopScores smaller = heap.size() < other.heap.size() ? this : other;
+        TopScores larger = smaller == this ? other : this;
+        smaller.heap.forEach(larger::offer);
+        return larger;
+    }
+
+    private TreeSet<WordFrequencyScore> toSet() {
+        return new TreeSet<>(heap);
+    }
+
+    /**
+     * True if a score with this natural ordering sorts before the provided entry
+     */
+    private static boolean beats(double score, int naturalOrdering, WordFrequencyScore worst) {
+        if(score == worst.freqScore()) {
+            return naturalOrdering < worst.naturalOrdering();
+        }
+        return Double.compare(worst.freqScore(), score) < 0;
+    }
+}
@@ -5,7 +5,7 @@ import java.util.Map;
 public record  WordCalculationConfig (
         double rightLocationMultiplier,     // multiplies a letter score if this letter is in the correct position. Best range: [3-6]
         double uniquenessMultiplier,        // multiplies a letter score if it is not duplicate in the current word Best range: [4-9]
-        int partitionThreshold,             // number of viable words below which word partition calcs are performed. Impacts performance noticeably above 10, very significantly above 100.
+        int partitionThreshold,             // number of viable words below which word partition calcs are performed. Cost grows linearly with the viable words times the guess pool.
         double viableWordPreference,        // flat bonus to words in the viable word set. High values increase StDev. Best range: [0.001 - 0.01].
         boolean useHarmonic,                // scales down impact of more matches to prioritize new letters > important letters. Increases mean, but decreases max.
         int fishingThreshold,               // used by solvers to determine when to switch to only viable word choices. Best value is usually 2 or 3.
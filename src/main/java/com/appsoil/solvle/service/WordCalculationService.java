@@ -7,7 +7,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.DoubleAdder;
 import java.util.concurrent.atomic.LongAdder;
@@ -33,6 +40,9 @@ public class WordCalculationService {
 
     private static final Set<Character> vowels = Set.of('a', 'e', 'i', 'o', 'u');
 
+    // letters in the combined English and Icelandic alphabet that the unique adjustment scale was tuned against
+    private static final double UNIQUE_ADJUSTMENT_LETTERS = 36;
+
     public WordCalculationService(WordCalculationConfig config) {
         this.rightLocationMultiplier = config.rightLocationMultiplier();
         this.uniquenessMultiplier = config.uniquenessMultiplier();
@@ -48,81 +58,51 @@ public class WordCalculationService {
     }
 
     /**
-     * Finds all words in the provided set that match a given set of word restrictions.
+     * Finds all words in the provided set that match a given set of word restrictions. Dictionary word sets
+     * are resolved through their {@link WordIndex}, anything else is scanned.
      * @param wordSet
      * @param wordRestrictions
      * @return
      */
     public Set<Word> findMatchingWords(Set<Word> wordSet, WordRestrictions wordRestrictions) {
+        if(wordSet instanceof IndexedWordSet indexedWords) {
+            return indexedWords.filter(wordRestrictions);
+        }
+        RestrictionMask mask = wordRestrictions.toMask();
         return wordSet.parallelStream()
-                .filter(w -> isValidWord(w, wordRestrictions))
+                .filter(mask::matches)
                 .collect(Collectors.toSet());
     }
 
     /**
-     * Returns true if this word could be a valid word for the provided letters
+     * Returns true if this word could be a valid word for the provided letters. Prefer compiling a
+     * {@link RestrictionMask} once when checking many words against the same restrictions.
      *
      * @param wordRestrictions The Word describing available and required letters
      * @return
      */
     public boolean isValidWord(Word word, WordRestrictions wordRestrictions) {
-
-        //if required letters are missing
-        if (!word.letters().keySet().containsAll(wordRestrictions.requiredLetters())) {
-            return false;
-        }
-
-        //check if any required positions are missing
-        for (Map.Entry<Integer, Character> entry : wordRestrictions.letterPositions().entrySet()) {
-            if (word.word().charAt(entry.getKey() - 1) != entry.getValue()) {
-                return false;
-            }
-        }
-
-        //check if any excluded positions are present
-        for (var entry : wordRestrictions.positionExclusions().entrySet()) {
-            if (entry.getValue().contains(word.word().charAt(entry.getKey() - 1))) {
-                return false;
-            }
-        }
-
-        //then check if all letters in this word are available in the restrictions
-        return wordRestrictions.word().letters().keySet().containsAll(word.letters().keySet());
+        return wordRestrictions.toMask().matches(word);
     }
 
     /**
-     * Creates a map representing the number of words in the provided set that contain
-     * each letter present in any word in the set. A word that contains the letter
-     * multiple times will only be counted once.
+     * Counts the number of words in the provided set that contain each letter.
+     * A word that contains the letter multiple times will only be counted once.
      * @param words
      * @return
      */
-    public Map<Character, LongAdder> calculateCharacterCounts(Set<Word> words) {
-        Map<Character, LongAdder> counts = new ConcurrentHashMap<>(26);
-        words.parallelStream().forEach(word -> {
-            word.letters().forEach((key, value) -> {
-                counts.computeIfAbsent(key, k -> new LongAdder()).increment();
-            });
-        });
-        return counts;
+    public LetterCounts calculateCharacterCounts(Set<Word> words) {
+        return LetterCounts.of(words);
     }
 
     /**
-     * Creates a map representing the number of words in the provided set that contain
-     * each letter, organized by position. A word that contains the letter multiple times
-     * will only be counted once.
+     * Counts the number of words in the provided set that contain each letter,
+     * organized by position.
      * @param words
      * @return
      */
-    public Map<Integer, Map<Character, LongAdder>> calculateCharacterCountsByPosition(Set<Word> words) {
-        Map<Integer, Map<Character, LongAdder>> countsByPos = new ConcurrentHashMap<>();
-        words.parallelStream().forEach(word -> {
-            for(int i = 0; i < word.word().length(); i++) {
-                countsByPos.computeIfAbsent((i+1), k -> new ConcurrentHashMap<>(26))
-                        .computeIfAbsent(word.word().charAt(i), k -> new LongAdder()).increment();
-            }
-        });
-        return countsByPos;
+    public PositionLetterCounts calculateCharacterCountsByPosition(Set<Word> words) {
+        return PositionLetterCounts.of(words);
     }
 
     /**
@@ -141,24 +121,24 @@ public class WordCalculationService {
      * @param sizeLimit Maximum number of results to return
      * @return
      */
-    public Set<WordFrequencyScore> calculateViableWords(Set<Word> words, Map<Character, LongAdder> characterCounts, int viableWordsCount, int requiredCharCount, int sizeLimit, Map<Character, DoubleAdder> positionBonus) {
+    public Set<WordFrequencyScore> calculateViableWords(Set<Word> words, LetterCounts characterCounts, int viableWordsCount, int requiredCharCount, int sizeLimit, Map<Character, DoubleAdder> positionBonus) {
         return words.parallelStream()
-                .map(word -> new WordFrequencyScore(word.getOrder(), word.word(),
-                        calculateFreqScore(word, characterCounts, viableWordsCount, word.getLength() - requiredCharCount, positionBonus)))
-                .sorted()
-                .limit(sizeLimit)
-                .collect(Collectors.toCollection(() -> new TreeSet<>()));
+                .collect(TopScores.collector(sizeLimit,
+                        word -> calculateFreqScore(word, characterCounts, viableWordsCount, word.getLength() - requiredCharCount, positionBonus)));
     }
 
-    public Set<WordFrequencyScore> calculateViableWordsByPosition(Set<Word> words, Map<Integer, Map<Character, LongAdder>> characterCounts, Set<Word> containedWords,
+    public Set<WordFrequencyScore> calculateViableWordsByPosition(Set<Word> words, PositionLetterCounts characterCounts, Set<Word> containedWords,
                                                                   int requiredCharCount, int sizeLimit, WordRestrictions wordRestrictions, Map<Character, DoubleAdder> positionBonus) {
-        var result = words.parallelStream()
-                .map(word -> new WordFrequencyScore(word.getOrder(), word.word(),
-                        calculateFreqScoreByPosition(word, characterCounts, containedWords, word.getLength() - requiredCharCount, wordRestrictions, positionBonus)))
-                .sorted()
-                .limit(sizeLimit)
-                .collect(Collectors.toCollection(() -> new TreeSet<>()));
-        return result;
+        if(words.isEmpty()) {
+            return new TreeSet<>();
+        }
+        // word lists are bucketed by length, so one table usually scores every word
+        int length = words.iterator().next().getLength();
+        PositionWeights weights = positionWeights(length, characterCounts, containedWords.size(), length - requiredCharCount, wordRestrictions, positionBonus);
+        return words.parallelStream()
+                .collect(TopScores.collector(sizeLimit, word -> word.getLength() == length
+                        ? calculateFreqScoreByPosition(word, weights, containedWords, wordRestrictions)
+                        : calculateFreqScoreByPosition(word, characterCounts, containedWords, word.getLength() - requiredCharCount, wordRestrictions, positionBonus)));
     }
 
     /**
@@ -179,51 +159,30 @@ public class WordCalculationService {
      * @param requiredLetters
      * @return
      */
-    public Set<WordFrequencyScore> calculateFishingWords(Set<Word> allWords, Map<Character, LongAdder> characterCounts, int viableWordsCount, int sizeLimit, Set<Character> requiredLetters, Map<Character, DoubleAdder> positionBonus) {
+    public Set<WordFrequencyScore> calculateFishingWords(Set<Word> allWords, LetterCounts characterCounts, int viableWordsCount, int sizeLimit, Set<Character> requiredLetters, Map<Character, DoubleAdder> positionBonus) {
         return calculateViableWords(allWords,
                 removeRequiredLettersFromCounts(characterCounts, requiredLetters),
                 viableWordsCount, requiredLetters.size(), sizeLimit, positionBonus);
     }
 
-    public Set<WordFrequencyScore> calculateFishingWordsByPosition(Set<Word> allWords, Map<Integer, Map<Character, LongAdder>> characterCounts, Set<Word> containedWords, int sizeLimit, WordRestrictions wordRestrictions, Map<Character, DoubleAdder> positionBonus) {
+    public Set<WordFrequencyScore> calculateFishingWordsByPosition(Set<Word> allWords, PositionLetterCounts characterCounts, Set<Word> containedWords, int sizeLimit, WordRestrictions wordRestrictions, Map<Character, DoubleAdder> positionBonus) {
         return calculateViableWordsByPosition(allWords,
                 removeRequiredLettersFromCountsByPosition(characterCounts, wordRestrictions),
                 containedWords, wordRestrictions.letterPositions().keySet().size(), sizeLimit, wordRestrictions, positionBonus);
     }
 
     /**
-     * Returns a new map that matches the provided map, but any entries for one of the required letters has been removed.
+     * Returns a copy of the counts with the entries for the required letters removed.
      * @param characterCounts
      * @param requiredLetters
      * @return
      */
-    public Map<Character, LongAdder> removeRequiredLettersFromCounts(Map<Character, LongAdder> characterCounts, Set<Character> requiredLetters) {
-        return characterCounts.entrySet().stream()
-                .filter(entrySet -> !requiredLetters.contains(entrySet.getKey()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (x, y) -> y, ConcurrentHashMap::new));
+    public LetterCounts removeRequiredLettersFromCounts(LetterCounts characterCounts, Set<Character> requiredLetters) {
+        return characterCounts.without(requiredLetters);
     }
 
-    public Map<Integer, Map<Character, LongAdder>> removeRequiredLettersFromCountsByPosition(Map<Integer, Map<Character, LongAdder>> characterCounts, WordRestrictions wordRestrictions) {
-        Map<Integer, Map<Character, LongAdder>> newMap = new ConcurrentHashMap<>();
-        characterCounts.forEach((pos, v) -> {
-            if((wordRestrictions.letterPositions().containsKey(pos)
-                    && v.containsKey(wordRestrictions.letterPositions().get(pos)))
-                    || v.size() == 1) //if there's only 1 option for this position, it is implicitly "known"
-            {
-                newMap.put(pos, new ConcurrentHashMap<>());
-            } else if (v.size() == 2) {
-                //if there are 2 options for this position, just pick the least common and infer the other
-                Map<Character, LongAdder> reducedMap = new ConcurrentHashMap<>();
-                var entry = v.entrySet().stream()
-                        .sorted(Comparator.comparingInt(es -> es.getValue().intValue()))
-                        .findFirst().get();
-                reducedMap.put(entry.getKey(), entry.getValue());
-                newMap.put(pos, reducedMap);
-            } else {
-                newMap.put(pos, v);
-            }
-        });
-        return newMap;
+    public PositionLetterCounts removeRequiredLettersFromCountsByPosition(PositionLetterCounts characterCounts, WordRestrictions wordRestrictions) {
+        return characterCounts.withoutKnownLetters(wordRestrictions.letterPositions());
     }
 
 
@@ -237,17 +196,18 @@ public class WordCalculationService {
      * @param maxScore The number of letters available for scoring. For example, if we already know 2 letters of a 5-letter word, the max score is 3
      * @return
      */
-    protected Double calculateFreqScore(Word word, Map<Character, LongAdder> wordsWithCharacter, int totalWords, int maxScore, Map<Character, DoubleAdder> positionBonus) {
+    protected Double calculateFreqScore(Word word, LetterCounts wordsWithCharacter, int totalWords, int maxScore, Map<Character, DoubleAdder> positionBonus) {
         if(totalWords < 1 || maxScore < 1) {
             return 0.0;
         }
 
-        return word.letters().entrySet().stream()
-                .mapToDouble(c -> {
-                    double rutBreakerBonus = positionBonus.containsKey(c) ? positionBonus.get(c).doubleValue() : 0.0;
-                    double numerator =  (wordsWithCharacter.containsKey(c.getKey()) ? wordsWithCharacter.get(c.getKey()).doubleValue() : 0) + rutBreakerBonus;
-                    return numerator / ((double)totalWords * maxScore);
-                }).sum();
+        // sum in alphabet order so that anagrams produce exactly the same score. Characters outside the alphabet are
+        // scored through their shared slot, which is zero for a viable word set since restrictions never allow them
+        double score = 0.0;
+        for(long letters = word.letterMask(); letters != 0; letters &= letters - 1) {
+            score += wordsWithCharacter.get(Long.numberOfTrailingZeros(letters)) / ((double)totalWords * maxScore);
+        }
+        return score;
     }
 
     /**
@@ -256,47 +216,82 @@ public class WordCalculationService {
      * positions in every word in the set. Values greater than 1.0 may be returned as a result of bias multipliers.
      * @return
      */
-    protected Double calculateFreqScoreByPosition(Word word, Map<Integer, Map<Character, LongAdder>> wordsWithCharacter,
+    protected Double calculateFreqScoreByPosition(Word word, PositionLetterCounts wordsWithCharacter,
                                                   Set<Word> containedWords, int maxScore, WordRestrictions wordRestrictions, Map<Character, DoubleAdder> positionBonus) {
-        if(containedWords.size() < 1 || maxScore < 1) {
-            return 0.0;
+        return calculateFreqScoreByPosition(word,
+                positionWeights(word.getLength(), wordsWithCharacter, containedWords.size(), maxScore, wordRestrictions, positionBonus),
+                containedWords, wordRestrictions);
+    }
+
+    private double calculateFreqScoreByPosition(Word word, PositionWeights weights, Set<Word> containedWords, WordRestrictions wordRestrictions) {
+        double totalScore = weights.score(word);
+
+        if(totalScore > 0 && containedWords.contains(word)) {
+            double numKnownLetters = wordRestrictions.letterPositions().keySet().size();
+            //scale viable word preference based on number of positions known
+            double viableWordAdjustment = (viableWordPreference - ((numKnownLetters * viableWordAdjustmentScale)/word.getLength()));
+            totalScore += viableWordAdjustment ; //tiebreaker toward potential solutions
         }
 
-        double numKnownLetters = wordRestrictions.letterPositions().keySet().size();
-        double wordLength = word.getLength();
+        return totalScore;
+    }
 
+    /**
+     * Builds the table used by {@link #calculateFreqScoreByPosition}. For each position (i) a letter could be in,
+     * sums how many points it scores based on the letters in each position across all words (j), including the
+     * location, uniqueness, vowel and rut breaker bonuses.
+     * @param length Length of the words that will be scored
+     * @param containedCount Number of words in the contained set
+     * @param maxScore The number of letters available for scoring
+     */
+    PositionWeights positionWeights(int length, PositionLetterCounts wordsWithCharacter, int containedCount, int maxScore,
+                                    WordRestrictions wordRestrictions, Map<Character, DoubleAdder> positionBonus) {
+        double[][] unique = new double[length][Alphabet.SLOTS];
+        double[][] repeated = new double[length][Alphabet.SLOTS];
+        if(containedCount < 1 || maxScore < 1) {
+            return new PositionWeights(length, unique, repeated);
+        }
+
+        double numKnownLetters = wordRestrictions.letterPositions().keySet().size();
+        double wordLength = length;
 
         //scale location bonus based on number of positions known
         double locationAdjustment = 1 - ((numKnownLetters / wordLength) * locationAdjustmentScale);
 
         //scale unique bonus based on number of letters remaining
-        double uniqueAdjustment = 1 - ((1 - (wordLength / WordRestrictions.NO_RESTRICTIONS.word().getLength())) * uniqueAdjustmentScale);
-
-        //scale viable word preference based on number of positions known
-        double viableWordAdjustment = (viableWordPreference - ((numKnownLetters * viableWordAdjustmentScale)/wordLength));
+        double uniqueAdjustment = 1 - ((1 - (wordLength / UNIQUE_ADJUSTMENT_LETTERS)) * uniqueAdjustmentScale);
 
-        double totalScore = 0.0;
+        double divisor = containedCount * maxScore * rightLocationMultiplier; //divide by max score * bonuses to normalize scores closer to 100%
 
-        // for each position in this word (i), check to see how many points it scores based on letters in each position across all words (j)
-        for(int i = 0; i < word.word().length(); i++) {
-            char c = word.word().charAt(i);
-            double vowelPenalty = vowels.contains(c) ? vowelAdjustment : 1.0;
-            for(int j = 0; j < word.word().length(); j++) {
-                double locationBonus = (i == j) ? 1 + (rightLocationMultiplier-1)*locationAdjustment : 1;
-                double uniqueBonus = (word.letters().get(c) < 2) && !wordRestrictions.requiredLetters().contains(c) ? 1 + (uniquenessMultiplier-1)*uniqueAdjustment : 1;
-                double rutBreakerBonus = positionBonus.containsKey(c) ? positionBonus.get(c).doubleValue() : 0.0;
-                double numerator = wordsWithCharacter.get(j+1).containsKey(c) ? harmonic(wordsWithCharacter.get(j+1).get(c).intValue()) + rutBreakerBonus: 0;
+        // by letter index, so required letters match whatever case they were written in
+        long requiredLetters = 0;
+        for(char c : wordRestrictions.requiredLetters()) {
+            requiredLetters |= Alphabet.bit(c);
+        }
 
-                totalScore += ((numerator * locationBonus * uniqueBonus * vowelPenalty))
-                         / (containedWords.size() * maxScore * rightLocationMultiplier); //divide by max score * bonuses to normalize scores closer to 100%
+        for(int letter = 0; letter < Alphabet.SLOTS; letter++) {
+            Character c = letter < Alphabet.size() ? Alphabet.letterAt(letter) : null;
+            double vowelPenalty = c != null && vowels.contains(c) ? vowelAdjustment : 1.0;
+            double uniqueBonus = (requiredLetters & (1L << letter)) == 0 ? 1 + (uniquenessMultiplier-1)*uniqueAdjustment : 1;
+            DoubleAdder rutBreaker = c == null ? null : positionBonus.get(c);
+            double rutBreakerBonus = rutBreaker == null ? 0.0 : rutBreaker.doubleValue();
+
+            // points for this letter in each position across all words
+            double[] numerators = new double[length];
+            for(int j = 0; j < length; j++) {
+                int count = wordsWithCharacter.get(j, letter);
+                numerators[j] = count > 0 ? harmonic(count) + rutBreakerBonus : 0;
             }
-        }
 
-        if(totalScore > 0 && containedWords.contains(word)) {
-            totalScore += viableWordAdjustment ; //tiebreaker toward potential solutions
+            for(int i = 0; i < length; i++) {
+                for(int j = 0; j < length; j++) {
+                    double locationBonus = (i == j) ? 1 + (rightLocationMultiplier-1)*locationAdjustment : 1;
+                    unique[i][letter] += (numerators[j] * locationBonus * uniqueBonus * vowelPenalty) / divisor;
+                    repeated[i][letter] += (numerators[j] * locationBonus * vowelPenalty) / divisor;
+                }
+            }
         }
-
-        return totalScore;
+        return new PositionWeights(length, unique, repeated);
     }
 
     /**
@@ -346,12 +341,12 @@ public class WordCalculationService {
         }
 
         Set<WordFrequencyScore> scores = new TreeSet<>();
-        Map<Word, DescriptiveStatistics> statSummary = new ConcurrentHashMap<>();
+        Map<Word, PartitionStats> statSummary = new ConcurrentHashMap<>();
 
         //for each word in the pool, create a new wordRequirements as if that word had been picked for each solution
         //  then calculate how many remaining words are left and average the results
         wordPool.parallelStream().forEach(word -> {
-            DescriptiveStatistics stats = getPartitionStatsForWord(startingRestrictions, containedWords, word);
+            PartitionStats stats = getPartitionStatsForWord(startingRestrictions, containedWords, word);
             if(stats != null ) {
                 statSummary.put(word, stats);
             }
@@ -359,52 +354,205 @@ public class WordCalculationService {
 
         statSummary.forEach((k, v) ->
                 scores.add(new WordFrequencyScore(k.getOrder(), k.word(),
-                        ((1.0 - (v.getMean() / containedWords.size()))
+                        ((1.0 - (v.mean() / containedWords.size()))
                                 + (containedWords.contains(k) ? (viableWordPreference / (1 + startingRestrictions.letterPositions().keySet().size() * viableWordAdjustmentScale)) : 0))))); // add tiny bonus to viable words so they are prioritized
         return scores;
     }
 
     /**
-     * Calculate how many words will remain in the word pool on average if a given word is selected
+     * Calculate how many words will remain in the word pool on average if a given word is selected. Solutions that
+     * give the same feedback for the word are exactly the ones left over together, so the result is built from a
+     * histogram of feedback group sizes in a single pass.
      * @param startingRestrictions The restrictions that were used to generate the current set of contained words
      * @param containedWords The currently available pool of valid solutions
      * @param word The word to be evaluated
-     * @return A stats object populated with the counts of all the potential new words list
+     * @return Mean and worst case remaining words plus entropy, or null if no contained words match the restrictions
      */
-    public DescriptiveStatistics getPartitionStatsForWord(WordRestrictions startingRestrictions, Set<Word> containedWords, Word word) {
-        DescriptiveStatistics stats = null;
-        for(Word solution : containedWords) {
-            WordRestrictions newRestrictions = WordRestrictions.generateRestrictions(solution, word, startingRestrictions);
-            Set<Word> newWords = findMatchingWords(containedWords, newRestrictions);
-            if(!newWords.isEmpty()) {
-                if(stats == null) {
-                    stats = new DescriptiveStatistics();
-                }
-                stats.addValue(newWords.size());
-            }
+    public PartitionStats getPartitionStatsForWord(WordRestrictions startingRestrictions, Set<Word> containedWords, Word word) {
+        return PartitionStats.fromCodes(feedbackCodes(word, findMatchingWords(containedWords, startingRestrictions)), word.getLength());
+    }
+
+    /**
+     * Looks up the feedback code of the guess against each solution, using the dictionary's precomputed
+     * {@link FeedbackMatrix} when the solutions come from an indexed dictionary.
+     */
+    private long[] feedbackCodes(Word guess, Set<Word> solutions) {
+        if(solutions instanceof IndexedWordSet indexedSolutions) {
+            return indexedSolutions.feedbackCodes(guess);
+        }
+        long[] codes = new long[solutions.size()];
+        int i = 0;
+        for(Word solution : solutions) {
+            codes[i++] = FeedbackMatrix.code(guess, solution);
         }
-        return stats;
+        return codes;
     }
 
     public Set<PlayOut> getWordsBySolveLength(Set<Word> containedWords, Set<Word> fishing, Set<Word> wordPool, Solver solver, WordRestrictions startingRestrictions, int guessNumber) {
+        return getWordsBySolveLength(containedWords, fishing, wordPool, solver, startingRestrictions, guessNumber, new PlayoutProgress(), Runnable::run, 0);
+    }
+
+    /**
+     * Plays out every solution after guessing each word of the pool, reporting each finished pool word to progress.
+     * Pool words are played out starting with the ones that partition the solutions best. A pool word is abandoned
+     * and flagged as pruned once even solving every remaining solution with the next guess would give a higher mean
+     * than the best finished playout, so the best playouts are always finished and the same whichever order the
+     * words finish in.
+     *
+     * The calling thread plays out pool words itself, and up to helperCount tasks on the helper executor join it.
+     * Helpers that have not started by the time the calling thread runs out of words are skipped, so a busy
+     * executor only costs parallelism.
+     * @param helpers     Executor for the helper tasks, which may reject them
+     * @param helperCount Number of helper tasks to submit, or 0 to play out every word on the calling thread
+     * @throws CancellationException if progress is cancelled before every playout finishes
+     */
+    public Set<PlayOut> getWordsBySolveLength(Set<Word> containedWords, Set<Word> fishing, Set<Word> wordPool, Solver solver, WordRestrictions startingRestrictions, int guessNumber,
+                                              PlayoutProgress progress, Executor helpers, int helperCount) {
         log.info("Generating {} playouts with {} valid solutions for {} total playouts using restrictions {}", wordPool.size(), containedWords.size(), (wordPool.size() * containedWords.size()), startingRestrictions);
-        AtomicInteger i = new AtomicInteger(0);
-        return wordPool.stream().map(guess -> {
-            DescriptiveStatistics stats = new DescriptiveStatistics();
-            List<List<String>> failures = new ArrayList<>();
-            containedWords.forEach(solution -> {
-                List<String> r = solver.solve(solution, containedWords, fishing, guess, startingRestrictions);
-                stats.addValue(r.size());
-                if(r.size() > (6 - guessNumber)) {
-                    failures.add(r);
+        progress.start(wordPool.size());
+
+        // most promising guesses first, so good playouts finish early and prune the rest
+        Map<Word, Double> partitionMeans = new ConcurrentHashMap<>();
+        wordPool.parallelStream().forEach(word -> {
+            PartitionStats stats = getPartitionStatsForWord(startingRestrictions, containedWords, word);
+            partitionMeans.put(word, stats == null ? Double.MAX_VALUE : stats.mean());
+        });
+        List<Word> ordered = wordPool.stream()
+                .sorted(Comparator.comparingDouble((Word word) -> partitionMeans.get(word)).thenComparing(Word::word))
+                .toList();
+
+        // every thread takes the next pool word in order until none are left
+        BestPlayOut best = new BestPlayOut();
+        AtomicInteger next = new AtomicInteger();
+        Set<PlayOut> playOuts = new ConcurrentSkipListSet<>();
+        Runnable work = () -> {
+            try {
+                for(int i = next.getAndIncrement(); i < ordered.size(); i = next.getAndIncrement()) {
+                    PlayOut playOut = playOut(ordered.get(i), containedWords, fishing, solver, startingRestrictions, guessNumber, progress, best);
+                    playOuts.add(playOut);
+                    int completed = progress.complete();
+                    if(completed % 10 == 0) {
+                        log.info("Completed " + completed + "/" + wordPool.size() + " playouts");
+                    }
                 }
-            });
-            var countMap = Arrays.stream(stats.getSortedValues()).mapToInt(num -> (int) num).boxed().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-            if(i.incrementAndGet() % 10 == 0) {
-                log.info("Completed " + i.get() + "/" + wordPool.size() + " playouts");
+            } catch (RuntimeException | Error e) {
+                next.set(ordered.size()); // stop the other threads after their current word
+                throw e;
+            }
+        };
+
+        List<PlayoutHelper> started = new ArrayList<>();
+        for(int h = 0; h < Math.min(helperCount, ordered.size() - 1); h++) {
+            PlayoutHelper helper = new PlayoutHelper(work);
+            try {
+                helpers.execute(helper);
+            } catch (RejectedExecutionException e) {
+                break;
             }
-            return new PlayOut(guess.word(), stats.getMean(), countMap.toString(), failures);
-        }).collect(Collectors.toCollection(() -> new TreeSet<>()));
+            started.add(helper);
+        }
+        try {
+            work.run();
+        } finally {
+            started.forEach(PlayoutHelper::skip);
+            started.forEach(PlayoutHelper::await);
+        }
+        return new TreeSet<>(playOuts);
+    }
+
+    /**
+     * A task that joins a playout unless the playout is over before it starts
+     */
+    private static final class PlayoutHelper implements Runnable {
+        private final Runnable work;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PlayoutHelper(Runnable work) {
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            if(!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                work.run();
+                done.complete(null);
+            } catch (RuntimeException | Error e) {
+                done.completeExceptionally(e);
+            }
+        }
+
+        void skip() {
+            if(claimed.compareAndSet(false, true)) {
+                done.complete(null);
+            }
+        }
+
+        /**
+         * Waits for the helper to finish its last word, rethrowing what it failed with
+         */
+        void await() {
+            try {
+                done.join();
+            } catch (CompletionException e) {
+                if(e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private PlayOut playOut(Word guess, Set<Word> containedWords, Set<Word> fishing, Solver solver, WordRestrictions startingRestrictions, int guessNumber, PlayoutProgress progress, BestPlayOut best) {
+        DescriptiveStatistics stats = new DescriptiveStatistics();
+        List<List<String>> failures = new ArrayList<>();
+        // every remaining solution takes at least two guesses, or one if it is the guess itself
+        double minimumRemaining = containedWords.size() * 2 - (containedWords.contains(guess) ? 1 : 0);
+        boolean pruned = false;
+        for(Word solution : containedWords) {
+            if(progress.isCancelled()) {
+                throw new CancellationException("Playout cancelled");
+            }
+            double lowerBound = (stats.getSum() + minimumRemaining) / containedWords.size();
+            if(best.beats(lowerBound)) {
+                pruned = true;
+                break;
+            }
+            List<String> r = solver.solve(solution, containedWords, fishing, guess, startingRestrictions);
+            stats.addValue(r.size());
+            minimumRemaining -= solution.equals(guess) ? 1 : 2;
+            if(r.size() > (6 - guessNumber)) {
+                failures.add(r);
+            }
+        }
+        var countMap = Arrays.stream(stats.getSortedValues()).mapToInt(num -> (int) num).boxed().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        if(pruned) {
+            return new PlayOut(guess.word(), (stats.getSum() + minimumRemaining) / containedWords.size(), countMap.toString(), failures, true);
+        }
+        best.offer(stats.getMean());
+        return new PlayOut(guess.word(), stats.getMean(), countMap.toString(), failures, false);
+    }
+
+    /**
+     * Lowest mean of the playouts finished so far, shared by the threads of one {@link #getWordsBySolveLength} call
+     */
+    private static final class BestPlayOut {
+        private volatile double mean = Double.MAX_VALUE;
+
+        synchronized void offer(double mean) {
+            this.mean = Math.min(this.mean, mean);
+        }
+
+        /**
+         * Returns true if a playout with this lower bound on its mean can no longer match the best. Ties are kept,
+         * so every playout with the best mean finishes.
+         */
+        boolean beats(double lowerBound) {
+            return lowerBound > mean;
+        }
     }
 
     /**
@@ -426,48 +574,22 @@ public class WordCalculationService {
     }
 
     /**
-     *
-     * @param wordList
+     * Finds groups of words that share the same letters in some positions, see {@link SharedPositionIndex}. Groups
+     * smaller than the rut break threshold are left out. Dictionary word sets filter the groups their index already
+     * found, anything else is grouped from scratch.
+     * @param wordList Words of the same length
      * @return
      */
     public SharedPositions findSharedWordRestrictions(Set<Word> wordList) {
-
-        Word[] words = new Word[wordList.size()];
-        words = wordList.toArray(words);
-
-        Map<KnownPosition, Set<Word>> knownPositions = new HashMap<>();
-
-        for(int i = 0; i < words.length; i++) {
-            for(int j = i; j < words.length; j++) {
-                Word w1 = words[i];
-                Word w2 = words[j];
-                Map<Integer, Character> sharedPositions = findSharedPositions(w1, w2);
-                if(sharedPositions.isEmpty() || sharedPositions.keySet().size() < 3 || sharedPositions.keySet().size() == w1.getLength()) {
-                    continue; //don't bother saving all the tiny matches or cases where the only match is the full word
-                }
-                KnownPosition knownPosition = new KnownPosition(sharedPositions);
-                knownPositions.computeIfAbsent(knownPosition, k-> new HashSet<>()).addAll(List.of(w1, w2));
+        int minSize = Math.max(2, rutBreakThreshold);
+        if(wordList instanceof IndexedWordSet indexedWords) {
+            SharedPositions shared = indexedWords.sharedPositions(minSize);
+            if(shared != null) {
+                return shared;
             }
         }
-        return new SharedPositions(knownPositions);
-    }
-
-    /**
-     * Returns a 1-based map of letter position to shared character. For example
-     * if the words are ROWER and TONER, the result is {2='O', 4='E', 5='R'}
-     * @param w1
-     * @param w2
-     * @return
-     */
-    private Map<Integer, Character> findSharedPositions(Word w1, Word w2) {
-
-        Map<Integer, Character> knownPositions = new HashMap<>();
-        for(int i = 0; i < w1.getLength(); i++) {
-            if(w1.word().charAt(i) == w2.word().charAt(i)) {
-                knownPositions.put(i+1, w1.word().charAt(i));
-            }
-        }
-        return knownPositions;
+        SharedPositionIndex index = SharedPositionIndex.of(wordList.toArray(new Word[0]));
+        return index == null ? new SharedPositions(new HashMap<>()) : index.all(minSize);
     }
 
     /**
@@ -488,18 +610,22 @@ public class WordCalculationService {
                 return;
             }
             double multFactor = ((double)wordSet.size() / sharedPositions.largestSet()) * rutBreakMultiplier;
-            calculateCharacterCountsByPosition(wordSet).forEach((position, charMap) ->{
+            PositionLetterCounts counts = calculateCharacterCountsByPosition(wordSet);
+            for(int pos = 0; pos < counts.positions(); pos++) {
                 // if the knownPosition doesn't have any value for this position, that means we still need to know it
                 //   so add the number of characters to the result
-                if(!kp.pos().containsKey(position)) {
-                    charMap.forEach((c, amt) -> {
-                        // only add bonuses to letters we don't know
-                        if(!wordRestrictions.requiredLetters().contains(c) && !kp.pos().containsValue(c)) {
-                            result.computeIfAbsent(c, k -> new DoubleAdder()).add(amt.longValue() * multFactor);
-                        }
-                    });
+                if(kp.hasPosition(pos + 1)) {
+                    continue;
+                }
+                for(int letter = 0; letter < Alphabet.size(); letter++) {
+                    int amt = counts.get(pos, letter);
+                    char c = Alphabet.letterAt(letter);
+                    // only add bonuses to letters we don't know
+                    if(amt > 0 && !wordRestrictions.requiredLetters().contains(c) && !kp.containsLetter(c)) {
+                        result.computeIfAbsent(c, k -> new DoubleAdder()).add(amt * multFactor);
+                    }
                 }
-            });
+            }
         });
         return result;
     }
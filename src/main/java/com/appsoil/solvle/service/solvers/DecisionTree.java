@@ -0,0 +1,158 @@
+package com.appsoil.solvle.service.solvers;
+
+import com.appsoil.solvle.controller.SolvleDTO;
+import com.appsoil.solvle.data.FeedbackMatrix;
+import com.appsoil.solvle.data.IndexedWordSet;
+import com.appsoil.solvle.data.StrategyTree;
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.data.WordRestrictions;
+import com.appsoil.solvle.service.SolvleService;
+import com.appsoil.solvle.service.WordCalculationConfig;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Game tree of the guesses a solver makes for one config. Every solution that has received the same feedback so far
+ * reaches the same node, so the analysis of each node and the solver's choice there are only calculated once, and
+ * solving a whole dictionary becomes one walk of the tree. Nodes are never evicted, so a tree should only live as
+ * long as the solver that owns it.
+ * @param <S> State the solver carries from a node to its children, such as which kind of word it is guessing
+ */
+public final class DecisionTree<S> {
+
+    /**
+     * Picks the guess at a node from that node's analysis
+     */
+    public interface Strategy<S> {
+        /**
+         * @return the guess and the state to pass to its children, or null if no words remain
+         */
+        Choice<S> choose(SolvleDTO analysis, Node<S> node);
+    }
+
+    public record Choice<S>(Word guess, S state) {}
+
+    // games start from the same root if they have the same first word, restrictions, and word lists. Restrictions
+    //   are compared by value, so equal restrictions from different callers share a tree
+    private record Root(Word firstWord, WordRestrictions restrictions, Object viable, Object fishing) {}
+
+    // words outside a dictionary index, compared by content without keeping the set alive as a key
+    private record WordsFingerprint(int size, long hash) {}
+
+    private final SolvleService solvleService;
+    private final WordCalculationConfig config;
+    private final Strategy<S> strategy;
+    private final Map<Root, Node<S>> roots = new ConcurrentHashMap<>();
+    private final LongAdder analyses = new LongAdder();
+
+    public DecisionTree(SolvleService solvleService, WordCalculationConfig config, Strategy<S> strategy) {
+        this.solvleService = solvleService;
+        this.config = config;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Follows the tree from the starting position to the solution, choosing guesses at nodes that have not been
+     * reached before.
+     * @param firstWord Optional. Guessed first without consulting the strategy
+     * @param state     State of the starting position
+     * @return An ordered list of guesses, of which the final one is the solution
+     */
+    public List<String> solve(Word solution, Set<Word> viable, Set<Word> fishing, Word firstWord, WordRestrictions wordRestrictions, S state) {
+        Node<S> node = roots.computeIfAbsent(new Root(firstWord, wordRestrictions, key(viable), key(fishing)),
+                r -> new Node<>(wordRestrictions, viable, state, List.of(), Set.of(), firstWord == null ? null : new Choice<>(firstWord, state)));
+        while(true) {
+            Choice<S> choice = node.choice(this, fishing);
+            if(choice == null) {
+                throw new IllegalStateException("Failed to find word " + solution.word());
+            }
+            if(choice.guess().equals(solution)) {
+                List<String> guesses = new ArrayList<>(node.guesses);
+                guesses.add(choice.guess().word());
+                return guesses;
+            }
+            node = node.child(FeedbackMatrix.code(choice.guess(), solution), choice);
+        }
+    }
+
+    /**
+     * Number of nodes that have been analysed
+     */
+    public long analyses() {
+        return analyses.sum();
+    }
+
+    private static Object key(Set<Word> words) {
+        return words instanceof IndexedWordSet indexedWords ? indexedWords.fingerprint() : new WordsFingerprint(words.size(), StrategyTree.fingerprint(words));
+    }
+
+    /**
+     * One position in the game: the guesses so far and what they revealed
+     */
+    public static final class Node<S> {
+        private final WordRestrictions wordRestrictions;
+        private final Set<Word> viable;
+        private final S state;
+        private final List<String> guesses;  // every guess leading here
+        private final Set<String> tried;     // guesses made by the strategy, which does not include a forced first word
+        private final boolean forced;
+        private final Map<Long, Node<S>> children = new ConcurrentHashMap<>(); // by feedback code of this node's guess
+        private Choice<S> choice;
+        private boolean chosen;
+
+        private Node(WordRestrictions wordRestrictions, Set<Word> viable, S state, List<String> guesses, Set<String> tried, Choice<S> forcedChoice) {
+            this.wordRestrictions = wordRestrictions;
+            this.viable = viable;
+            this.state = state;
+            this.guesses = guesses;
+            this.tried = tried;
+            this.forced = forcedChoice != null;
+            this.choice = forcedChoice;
+            this.chosen = forced;
+        }
+
+        public S state() {
+            return state;
+        }
+
+        /**
+         * Returns true if the strategy already guessed this word on the way to this node
+         */
+        public boolean hasGuessed(String word) {
+            return tried.contains(word);
+        }
+
+        private synchronized Choice<S> choice(DecisionTree<S> tree, Set<Word> fishing) {
+            if(!chosen) {
+                SolvleDTO analysis = tree.solvleService.getWordAnalysis(wordRestrictions, viable, fishing, tree.config);
+                tree.analyses.increment();
+                choice = tree.strategy.choose(analysis, this);
+                chosen = true;
+            }
+            return choice;
+        }
+
+        private Node<S> child(long code, Choice<S> choice) {
+            return children.computeIfAbsent(code, c -> {
+                Word guess = choice.guess();
+                List<String> childGuesses = new ArrayList<>(guesses);
+                childGuesses.add(guess.word());
+                Set<String> childTried = new HashSet<>(tried);
+                if(!forced) {
+                    childTried.add(guess.word());
+                }
+                // keep only the viable words that would have given the same feedback, so each analysis only has to
+                //   look at the survivors of the previous guess
+                Set<Word> childViable = viable instanceof IndexedWordSet indexedViable ? indexedViable.filterByFeedback(guess, c) : viable;
+                return new Node<>(WordRestrictions.applyFeedback(guess, c, wordRestrictions), childViable, choice.state(),
+                        List.copyOf(childGuesses), Set.copyOf(childTried), null);
+            });
+        }
+    }
+}
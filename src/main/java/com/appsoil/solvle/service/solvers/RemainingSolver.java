@@ -7,7 +7,6 @@ import com.appsoil.solvle.data.WordRestrictions;
 import com.appsoil.solvle.service.SolvleService;
 import com.appsoil.solvle.service.WordCalculationConfig;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -15,16 +14,21 @@ import java.util.Set;
  * Guesses the top fishing word until few enough words remain that we can
  * start using the best partition word. Use this until fishing threshold is
  * hit and then switch to top valid word.
+ *
+ * Guesses are memoized in a {@link DecisionTree}, so solving many words with
+ * the same solver only analyses each game position once.
  */
 public class RemainingSolver implements Solver {
 
-    private SolvleService solvleService;
+    private enum Phase { FISHING, PARTITION, VIABLE }
 
     WordCalculationConfig config;
 
+    private final DecisionTree<Phase> decisionTree;
+
     public RemainingSolver(SolvleService solvleService,WordCalculationConfig config) {
-        this.solvleService = solvleService;
         this.config = config;
+        this.decisionTree = new DecisionTree<>(solvleService, config, this::choose);
     }
 
     @Override
@@ -34,82 +38,61 @@ public class RemainingSolver implements Solver {
 
     @Override
     public List<String> solve(Word word, Set<Word> viable, Set<Word> fishing, Word firstWord, WordRestrictions wordRestrictions) {
-
-        if(word.equals(firstWord)) {
-            return List.of(firstWord.word());
-        }
         if(firstWord != null && firstWord.word().length() == word.word().length()) {
-            List<String> solution = new ArrayList<>();
-            solution.add(firstWord.word());
-            wordRestrictions = WordRestrictions.generateRestrictions(word, firstWord, wordRestrictions);
-            solution.addAll(solve(word, viable, fishing, wordRestrictions));
-            return solution;
+            return decisionTree.solve(word, viable, fishing, firstWord, wordRestrictions, Phase.FISHING);
         } else {
             return solve(word, viable, fishing, wordRestrictions);
         }
-
     }
 
-
     @Override
     public List<String> solve(Word word, Set<Word> viable, Set<Word> fishing, WordRestrictions wordRestrictions) {
-        List<String> solution = new ArrayList<>();
+        return decisionTree.solve(word, viable, fishing, null, wordRestrictions, Phase.FISHING);
+    }
 
+    /**
+     * Number of game positions this solver has analysed
+     */
+    public long analyses() {
+        return decisionTree.analyses();
+    }
 
-        //get the first guess
-        SolvleDTO guess = solvleService.getWordAnalysis(wordRestrictions, viable, fishing, config);
+    private DecisionTree.Choice<Phase> choose(SolvleDTO guess, DecisionTree.Node<Phase> node) {
+        Phase phase = node.state();
 
         // start by fishing until we are below the partition threshold
-        while(guess.totalWords() > config.partitionThreshold() && guess.totalWords() > config.fishingThreshold()) {
-            //guess the top fishing word
-            WordFrequencyScore currentGuess = guess.fishingWords().stream().findFirst().get();
-
-            //if we've already tried this word, we're stuck in a loop, switch to viable words
-            if(solution.contains(currentGuess.word())){
-                break;
+        if(phase == Phase.FISHING) {
+            if(guess.totalWords() > config.partitionThreshold() && guess.totalWords() > config.fishingThreshold()) {
+                //guess the top fishing word
+                WordFrequencyScore currentGuess = guess.fishingWords().stream().findFirst().get();
+
+                //if we've already tried this word, we're stuck in a loop, switch to viable words
+                if(!node.hasGuessed(currentGuess.word())) {
+                    return choice(currentGuess, Phase.FISHING);
+                }
             }
-            solution.add(currentGuess.word());
-
-            //if it's correct, bail
-            if(currentGuess.word().equals(word.word())) {
-                return solution;
-            }
-
-            //generate new restrictions and try again
-            wordRestrictions = WordRestrictions.generateRestrictions(word, new Word(currentGuess.word(), currentGuess.naturalOrdering()), wordRestrictions);
-            guess = solvleService.getWordAnalysis(wordRestrictions, viable, fishing, config);
+            phase = Phase.PARTITION;
         }
 
         // partition until we are below the fishing threshold as long as there are words in the partition set
-        while(guess.totalWords() > config.fishingThreshold() && guess.bestWords()!= null && !guess.bestWords().isEmpty()) {
-            WordFrequencyScore currentGuess = guess.bestWords().stream().findFirst().get();
-            if(solution.contains(currentGuess.word())){
-                break;
-            }
-            solution.add(currentGuess.word());
-
-            //if it's correct, bail
-            if(currentGuess.word().equals(word.word())) {
-                return solution;
+        if(phase == Phase.PARTITION) {
+            if(guess.totalWords() > config.fishingThreshold() && guess.bestWords()!= null && !guess.bestWords().isEmpty()) {
+                WordFrequencyScore currentGuess = guess.bestWords().stream().findFirst().get();
+                if(!node.hasGuessed(currentGuess.word())) {
+                    return choice(currentGuess, Phase.PARTITION);
+                }
             }
-            wordRestrictions = WordRestrictions.generateRestrictions(word, new Word(currentGuess.word(), currentGuess.naturalOrdering()), wordRestrictions);
-            guess = solvleService.getWordAnalysis(wordRestrictions, viable, fishing, config);
+            phase = Phase.VIABLE;
         }
 
         // pick out of the viable set
-        while(guess.totalWords() > 0) {
-            WordFrequencyScore currentGuess = guess.wordList().stream().findFirst().get();
-            solution.add(currentGuess.word());
-            //if it's correct, bail
-            if(currentGuess.word().equals(word.word())) {
-                return solution;
-            }
-
-            //generate new restrictions and try again
-            wordRestrictions = WordRestrictions.generateRestrictions(word, new Word(currentGuess.word(), currentGuess.naturalOrdering()), wordRestrictions);
-            guess = solvleService.getWordAnalysis(wordRestrictions, viable, fishing, config);
+        if(guess.totalWords() > 0) {
+            return choice(guess.wordList().stream().findFirst().get(), phase);
         }
+        return null;
+    }
 
-        throw new IllegalStateException("Failed to find word " + word.word());
+    private static DecisionTree.Choice<Phase> choice(WordFrequencyScore guess, Phase phase) {
+        return new DecisionTree.Choice<>(new Word(guess.word(), guess.naturalOrdering()), phase);
     }
 }
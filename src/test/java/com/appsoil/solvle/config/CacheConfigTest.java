@@ -0,0 +1,132 @@
+package com.appsoil.solvle.config;
+
+import com.appsoil.solvle.controller.CacheStatsDTO;
+import com.appsoil.solvle.controller.SolvleController;
+import com.appsoil.solvle.controller.SolvleDTO;
+import com.appsoil.solvle.controller.WordScoreDTO;
+import com.appsoil.solvle.data.Dictionary;
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.data.WordFrequencyScore;
+import com.appsoil.solvle.service.GameSessionService;
+import com.appsoil.solvle.service.PlayoutJobService;
+import com.appsoil.solvle.service.SolvleService;
+import com.appsoil.solvle.service.StrategyTreeService;
+import com.appsoil.solvle.service.WordCalculationConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Bean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@SpringBootTest(classes = {CacheConfig.class, SolvleController.class, SolvleService.class, GameSessionService.class,
+        StrategyTreeService.class, PlayoutJobService.class, CacheConfigTest.CacheTestConfiguration.class},
+        properties = "solvle.cache.word-score.max-size=4KB")
+public class CacheConfigTest {
+
+    @TestConfiguration
+    @EnableCaching
+    public static class CacheTestConfiguration {
+        @Bean(name = {"simpleDictionary", "bigDictionary", "hugeDictionary", "reducedDictionary", "icelandicDictionary"})
+        Dictionary getTestDictionary() {
+            Set<Word> words = Stream.of("alert", "later", "alter", "crane", "trace", "react", "quick", "lemon", "melon").map(Word::new).collect(Collectors.toSet());
+            return new Dictionary(Map.of(5, words));
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    SolvleService solvleService;
+
+    @Autowired
+    SolvleController solvleController;
+
+    @Test
+    void weigh_analysis_growsWithEveryScore() {
+        Set<WordFrequencyScore> scores = IntStream.range(0, 10)
+                .mapToObj(i -> new WordFrequencyScore(i + 1, "word" + i, i))
+                .collect(Collectors.toCollection(TreeSet::new));
+        SolvleDTO empty = new SolvleDTO("", new TreeSet<>(), new TreeSet<>(), null, 0, Map.of(), List.of());
+        SolvleDTO full = new SolvleDTO("", scores, scores, null, 10, Map.of(), List.of());
+
+        // each score costs its set entry, the score itself and its 5 character word
+        Assertions.assertEquals(2 * 10 * (40 + 32 + 40 + 5), CacheConfig.weigh(full) - CacheConfig.weigh(empty));
+        Assertions.assertEquals(40 + 5, CacheConfig.weigh("alert"));
+        SimpleKey key = new SimpleKey("alert", 5, "simple");
+        Assertions.assertEquals(16 + CacheConfig.weigh(key.toString()), CacheConfig.weigh(key));
+    }
+
+    @Test
+    void wordScoreCache_overMaxSize_evictsByWeight() {
+        Cache<Object, Object> cache = nativeCache("wordScore");
+        IntStream.range(0, 200).forEach(i -> cache.put(new SimpleKey("restrictions" + i, "alert", "simple"), new WordScoreDTO(i, i)));
+        cache.cleanUp();
+
+        Assertions.assertTrue(cache.policy().eviction().get().weightedSize().getAsLong() <= 4 * 1024);
+        Assertions.assertTrue(cache.estimatedSize() < 200);
+        Assertions.assertTrue(cache.stats().evictionWeight() > 0);
+        cache.invalidateAll();
+    }
+
+    @Test
+    void candidateCache_entryStoresScores_isWeighedAgain() {
+        long before = candidateWeight();
+        solvleService.getScore("abcdeilmnoqrtu", "alert", "simple", WordCalculationConfig.SIMPLE);
+        long first = candidateWeight();
+        solvleService.getScore("abcdeilmnoqrtu", "crane", "simple", WordCalculationConfig.SIMPLE);
+        solvleService.getScore("abcdeilmnoqrtu", "lemon", "simple", WordCalculationConfig.SIMPLE);
+
+        Assertions.assertTrue(first > before);
+        Assertions.assertTrue(candidateWeight() > first);
+    }
+
+    @Test
+    void getCacheStats_afterCachedCall_reportsEveryCache() {
+        CacheStatsDTO before = solvleController.getCacheStats().get("validWords");
+
+        solvleService.getWordAnalysis("aeiou", 5, "simple", WordCalculationConfig.SIMPLE);
+        solvleService.getWordAnalysis("uoiea", 5, "simple", WordCalculationConfig.SIMPLE);
+        nativeCache("validWords").cleanUp(); // sizes are updated asynchronously
+        Map<String, CacheStatsDTO> stats = solvleController.getCacheStats();
+
+        Assertions.assertEquals(Set.of("validWords", "wordScore", "candidates", "sessions", "playouts"), stats.keySet());
+        CacheStatsDTO validWords = stats.get("validWords");
+        Assertions.assertEquals(before.misses() + 1, validWords.misses());
+        Assertions.assertEquals(before.hits() + 1, validWords.hits());
+        Assertions.assertTrue(validWords.entries() >= 1);
+        Assertions.assertTrue(validWords.weightBytes() > 0);
+    }
+
+    private long candidateWeight() {
+        Cache<?, ?> cache = solvleService.getCandidateCache();
+        cache.cleanUp();
+        return cache.policy().eviction().get().weightedSize().getAsLong();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
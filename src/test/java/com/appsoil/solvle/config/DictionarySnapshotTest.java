@@ -0,0 +1,105 @@
+package com.appsoil.solvle.config;
+
+import com.appsoil.solvle.data.Word;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class DictionarySnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void read_afterWrite_returnsSameWordsInOrder() throws IOException {
+        URL resource = resource("crane\nalert\nlater\nto\nquick\nat\n");
+        Path snapshot = dir.resolve("words.bin");
+        Map<Integer, Set<Word>> dict = Map.of(
+                2, words("at", "to"),
+                5, words("alert", "crane", "later", "quick"));
+
+        DictionarySnapshot.write(snapshot, resource, dict);
+        Map<Integer, Set<Word>> read = DictionarySnapshot.read(snapshot, resource, length -> true);
+
+        Assertions.assertNotNull(read);
+        Assertions.assertEquals(dict.keySet(), read.keySet());
+        dict.forEach((length, words) -> {
+            List<Word> expected = new ArrayList<>(words);
+            List<Word> actual = new ArrayList<>(read.get(length));
+            Assertions.assertEquals(expected, actual);
+            for(int i = 0; i < expected.size(); i++) {
+                Assertions.assertEquals(expected.get(i).letterMask(), actual.get(i).letterMask());
+                Assertions.assertEquals(i + 1, actual.get(i).getOrder());
+            }
+        });
+        Assertions.assertEquals(Set.of(5), DictionarySnapshot.read(snapshot, resource, length -> length == 5).keySet());
+    }
+
+    @Test
+    void read_sourceChangedWithSameLength_ignoresSnapshot() throws IOException {
+        URL resource = resource("crane\nalert\n");
+        Path snapshot = dir.resolve("words.bin");
+        DictionarySnapshot.write(snapshot, resource, Map.of(5, words("alert", "crane")));
+
+        Files.writeString(Path.of(resource.getPath()), "crane\nlater\n");
+
+        Assertions.assertNull(DictionarySnapshot.read(snapshot, resource, length -> true));
+    }
+
+    @Test
+    void read_buildStamp_checkedInsteadOfContent() throws IOException {
+        URL resource = resource("crane\nalert\n");
+        Path stamp = dir.resolve("words.txt" + DictionarySnapshot.STAMP_SUFFIX);
+        Files.writeString(stamp, "0123abcd\n");
+        Path snapshot = dir.resolve("words.bin");
+        DictionarySnapshot.write(snapshot, resource, Map.of(5, words("alert", "crane")));
+
+        // the words are not read while the stamp is unchanged
+        Files.writeString(Path.of(resource.getPath()), "crane\nlater\n");
+        Assertions.assertEquals(Set.of(5), DictionarySnapshot.read(snapshot, resource, length -> true).keySet());
+
+        Files.writeString(stamp, "4567abcd\n");
+        Assertions.assertNull(DictionarySnapshot.read(snapshot, resource, length -> true));
+    }
+
+    @Test
+    void sourceStamp_packagedDictionary_matchesContentHash() throws IOException {
+        URL resource = getClass().getResource("/dict2/simple-solutions.txt");
+
+        Assertions.assertNotNull(getClass().getResource("/dict2/simple-solutions.txt" + DictionarySnapshot.STAMP_SUFFIX));
+        Assertions.assertEquals(HexFormat.of().formatHex(DictionarySnapshot.contentHash(resource)), DictionarySnapshot.sourceStamp(resource));
+    }
+
+    @Test
+    void read_missingOrUnknownSnapshot_returnsNull() throws IOException {
+        URL resource = resource("crane\n");
+        Path snapshot = dir.resolve("words.bin");
+
+        Assertions.assertNull(DictionarySnapshot.read(snapshot, resource, length -> true));
+        Files.writeString(snapshot, "not a snapshot");
+        Assertions.assertNull(DictionarySnapshot.read(snapshot, resource, length -> true));
+    }
+
+    private URL resource(String content) throws IOException {
+        Path source = dir.resolve("words.txt");
+        Files.writeString(source, content);
+        return source.toUri().toURL();
+    }
+
+    private static Set<Word> words(String... words) {
+        return Stream.of(words).map(Word::new).collect(Collectors.toCollection(TreeSet::new));
+    }
+}
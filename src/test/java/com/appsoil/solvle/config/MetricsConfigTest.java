@@ -0,0 +1,70 @@
+package com.appsoil.solvle.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Tags;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class MetricsConfigTest {
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "simple | simple",
+            "iceland | iceland",
+            "SIMPLE | other",
+            "../../etc/passwd | other",
+            "null | none"}, delimiter = '|', nullValues = "null")
+    void wordListTag_anyValue_reducedToKnownLists(String wordList, String tag) {
+        Assertions.assertEquals(tag, MetricsConfig.wordListTag(wordList));
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "5 | 5",
+            "15 | 15",
+            "0 | other",
+            "16 | other",
+            "-5 | other",
+            "99999999999 | other",
+            "five | other",
+            "null | none"}, delimiter = '|', nullValues = "null")
+    void wordLengthTag_anyValue_reducedToSupportedLengths(String wordLength, String tag) {
+        Assertions.assertEquals(tag, MetricsConfig.wordLengthTag(wordLength));
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "true | true",
+            "FALSE | false",
+            "yes | other",
+            "null | none"}, delimiter = '|', nullValues = "null")
+    void hardModeTag_anyValue_reducedToBooleans(String hardMode, String tag) {
+        Assertions.assertEquals(tag, MetricsConfig.hardModeTag(hardMode));
+    }
+
+    @Test
+    void requestTags_unknownWordListAndLength_useOther() {
+        Assertions.assertEquals(Tags.of("wordList", "other", "wordLength", "other", "hardMode", "true"),
+                MetricsConfig.requestTags("made-up", 40, true));
+    }
+
+    @Test
+    void solvleRequestObservationConvention_arbitraryParameters_reducesTags() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/solvle/abc");
+        request.setParameter("wordList", "made-up");
+        request.setParameter("wordLength", "12345");
+
+        KeyValues keyValues = new MetricsConfig().solvleRequestObservationConvention()
+                .getLowCardinalityKeyValues(new ServerRequestObservationContext(request, new MockHttpServletResponse()));
+
+        Assertions.assertTrue(keyValues.stream().anyMatch(KeyValue.of("wordList", "other")::equals), keyValues.toString());
+        Assertions.assertTrue(keyValues.stream().anyMatch(KeyValue.of("wordLength", "other")::equals), keyValues.toString());
+        Assertions.assertTrue(keyValues.stream().anyMatch(KeyValue.of("hardMode", "none")::equals), keyValues.toString());
+    }
+}
@@ -0,0 +1,89 @@
+package com.appsoil.solvle.controller;
+
+import com.appsoil.solvle.config.CacheConfig;
+import com.appsoil.solvle.data.Dictionary;
+import com.appsoil.solvle.data.StrategyTree;
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.service.GameSessionService;
+import com.appsoil.solvle.service.PlayoutJobService;
+import com.appsoil.solvle.service.SolvleService;
+import com.appsoil.solvle.service.StrategyTreeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@SpringBootTest(classes = {CacheConfig.class, SolvleService.class, GameSessionService.class, PlayoutJobService.class,
+        SolvleControllerTest.ControllerTestConfiguration.class})
+public class SolvleControllerTest {
+
+    @TestConfiguration
+    public static class ControllerTestConfiguration {
+        @Bean(name = {"simpleDictionary", "bigDictionary", "hugeDictionary", "reducedDictionary", "icelandicDictionary"})
+        Dictionary getTestDictionary() {
+            Set<Word> words = Stream.of("aaaaa", "aaaab", "aaabc", "aabcd", "abcde", "bcdea").map(Word::new).collect(Collectors.toSet());
+            return new Dictionary(Map.of(5, words));
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    SolvleService solvleService;
+    @Autowired
+    CacheManager cacheManager;
+    @Autowired
+    GameSessionService gameSessionService;
+    @Autowired
+    PlayoutJobService playoutJobService;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void solvePuzzle_preset_answeredFromStrategyTree(@TempDir Path dir) throws IOException {
+        StrategyTreeService strategyTreeService = new StrategyTreeService(solvleService, dir.toString());
+        SolvleController controller = new SolvleController(solvleService, cacheManager, gameSessionService, strategyTreeService, playoutJobService, meterRegistry);
+
+        // replace the built tree with one no solver would produce, so only an answer from the tree can match it
+        StrategyTree tree = strategyTreeService.build("SIMPLE", "simple", 5);
+        Path file;
+        try(Stream<Path> files = Files.list(dir)) {
+            file = files.findFirst().orElseThrow();
+        }
+        List<String> fromTree = List.of("aaaaa", "aaaab", "bcdea");
+        StrategyTree.of(Map.of("bcdea", fromTree), tree.strategy(), tree.fingerprint()).write(file);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 60_000));
+
+        Assertions.assertEquals(fromTree, solve(controller, "SIMPLE"));
+        Assertions.assertEquals(fromTree, solve(controller, "simple"));
+        Assertions.assertNotEquals(fromTree, solve(controller, null));
+        ResponseStatusException unknown = Assertions.assertThrows(ResponseStatusException.class, () -> solve(controller, "NOT_A_PRESET"));
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, unknown.getStatusCode());
+    }
+
+    // the request parameters the front end sends for SIMPLE, which has no parameter for its fishing threshold
+    private static List<String> solve(SolvleController controller, String preset) {
+        return controller.solvePuzzle("bcdea", "", "simple", 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, false, preset);
+    }
+}
@@ -0,0 +1,34 @@
+package com.appsoil.solvle.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AlphabetTest {
+
+    @Test
+    void register_newLetter_matchesLikeBuiltInLetters() {
+        int size = Alphabet.size();
+        int before = Alphabet.indexOf('ñ');
+        try {
+            Alphabet.register("ñ");
+            Word word = new Word("añejo");
+
+            Assertions.assertNotEquals(Alphabet.UNKNOWN_INDEX, Alphabet.indexOf('ñ'));
+            Assertions.assertEquals(Alphabet.indexOf('ñ'), Alphabet.indexOf('Ñ'));
+            Assertions.assertTrue(new WordRestrictions("añejo").toMask().matches(word));
+            Assertions.assertFalse(new WordRestrictions("aejo").toMask().matches(word));
+            Assertions.assertTrue(WordRestrictions.noRestrictions().toMask().matches(word));
+        } finally {
+            Alphabet.truncate(size);
+        }
+        Assertions.assertEquals(size, Alphabet.size());
+        Assertions.assertEquals(before, Alphabet.indexOf('ñ'));
+    }
+
+    @Test
+    void indexOf_eitherCase_sharesIndex() {
+        Assertions.assertEquals(Alphabet.indexOf('þ'), Alphabet.indexOf('Þ'));
+        Assertions.assertEquals('a', Alphabet.letterAt(Alphabet.indexOf('A')));
+        Assertions.assertEquals(Alphabet.UNKNOWN_INDEX, Alphabet.indexOf('1'));
+    }
+}
@@ -0,0 +1,118 @@
+package com.appsoil.solvle.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class DictionaryTest {
+
+    private final Map<Integer, Set<Word>> source = Map.of(
+            4, words("lamb", "lime"),
+            5, words("alert", "crane", "later"));
+    private final Map<Integer, Integer> loads = new ConcurrentHashMap<>();
+    private final IntFunction<Set<Word>> loader = length -> {
+        loads.merge(length, 1, Integer::sum);
+        return source.get(length);
+    };
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void wordsOfLength_lazy_loadsEachLengthOnFirstUse() {
+        Dictionary dictionary = Dictionary.lazy("test", loader, executor, Set.of());
+        Assertions.assertTrue(loads.isEmpty());
+
+        Set<Word> words = dictionary.wordsOfLength(5);
+
+        Assertions.assertInstanceOf(IndexedWordSet.class, words);
+        Assertions.assertEquals(source.get(5), words);
+        Assertions.assertSame(words, dictionary.wordsOfLength(5));
+        Assertions.assertNull(dictionary.wordsOfLength(6));
+        Assertions.assertEquals(Map.of(5, 1, 6, 1), loads);
+    }
+
+    @Test
+    void wordsOfLength_concurrentRequests_shareOneLoad() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Dictionary dictionary = Dictionary.lazy("test", length -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loader.apply(length);
+        }, executor, Set.of());
+
+        List<CompletableFuture<Set<Word>>> requests = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> dictionary.wordsOfLength(5)))
+                .toList();
+        Thread.sleep(50);
+        release.countDown();
+
+        Set<Word> first = requests.get(0).join();
+        requests.forEach(request -> Assertions.assertSame(first, request.join()));
+        Assertions.assertEquals(Map.of(5, 1), loads);
+    }
+
+    @Test
+    void lazy_pinnedLengths_loadImmediatelyAndAreNeverEvicted() {
+        Dictionary dictionary = Dictionary.lazy("test", loader, Runnable::run, Set.of(5));
+        Assertions.assertEquals(Map.of(5, 1), loads);
+
+        Set<Word> pinned = dictionary.wordsOfLength(5);
+
+        Assertions.assertTrue(dictionary.evictIdle(Duration.ZERO).isEmpty());
+        Assertions.assertSame(pinned, dictionary.wordsOfLength(5));
+        Assertions.assertEquals(Map.of(5, 1), loads);
+    }
+
+    @Test
+    void evictIdle_idleLength_releasesWordsAndReloadsOnNextUse() {
+        Dictionary dictionary = Dictionary.lazy("test", loader, Runnable::run, Set.of(5));
+        Set<Word> released = dictionary.wordsOfLength(4);
+
+        Assertions.assertTrue(dictionary.evictIdle(Duration.ofHours(1)).isEmpty());
+        Assertions.assertEquals(List.of(released), dictionary.evictIdle(Duration.ZERO));
+
+        Set<Word> reloaded = dictionary.wordsOfLength(4);
+        Assertions.assertNotSame(released, reloaded);
+        Assertions.assertEquals(released, reloaded);
+        Assertions.assertEquals(Map.of(4, 2, 5, 1), loads);
+    }
+
+    @Test
+    void wordsOfLength_failedLoad_retriesOnNextUse() {
+        Dictionary dictionary = Dictionary.lazy("test", length -> {
+            if(loads.merge(length, 1, Integer::sum) == 1) {
+                throw new IllegalStateException("unavailable");
+            }
+            return source.get(length);
+        }, Runnable::run, Set.of());
+
+        Assertions.assertThrows(RuntimeException.class, () -> dictionary.wordsOfLength(5));
+        Assertions.assertEquals(source.get(5), dictionary.wordsOfLength(5));
+    }
+
+    private static Set<Word> words(String... words) {
+        return Stream.of(words).map(Word::new).collect(Collectors.toSet());
+    }
+}
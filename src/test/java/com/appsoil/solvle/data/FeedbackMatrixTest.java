@@ -0,0 +1,82 @@
+package com.appsoil.solvle.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class FeedbackMatrixTest {
+
+    private final WordIndex index = new WordIndex(Stream.of("abide", "crane", "eerie", "speed", "there").map(Word::new).toList());
+
+    @ParameterizedTest
+    @CsvSource({
+            "crane, crane, 22222, 242",
+            "crane, abide, 00102, 171",
+            "aaaaa, abide, 21111, 122",
+            "speed, abide, 00111, 117",
+            "eerie, there, 11102, 175",
+            "there, eerie, 00112, 198",
+            "speed, there, 00210, 45"})
+    void code_repeatedLetters_matchesBaseThreeDigits(String guess, String solution, String feedback, long code) {
+        Assertions.assertEquals(code, FeedbackMatrix.code(new Word(guess), new Word(solution)));
+        Assertions.assertEquals(code, FeedbackMatrix.parse(new Word(guess), feedback));
+    }
+
+    @Test
+    void code_sameCode_producesSameRestrictions() {
+        List<Word> words = Stream.of("abide", "crane", "eerie", "speed", "there").map(Word::new).toList();
+        for(Word guess : words) {
+            for(Word first : words) {
+                for(Word second : words) {
+                    boolean sameCode = FeedbackMatrix.code(guess, first) == FeedbackMatrix.code(guess, second);
+                    boolean sameRestrictions = WordRestrictions.generateRestrictions(first, guess, WordRestrictions.noRestrictions())
+                            .equals(WordRestrictions.generateRestrictions(second, guess, WordRestrictions.noRestrictions()));
+                    Assertions.assertEquals(sameCode, sameRestrictions, guess + " against " + first + " and " + second);
+                }
+            }
+        }
+    }
+
+    @Test
+    void parse_letterMissingAndFoundElsewhere_readsAsFoundElsewhere() {
+        Assertions.assertEquals(FeedbackMatrix.parse(new Word("speed"), "00112"), FeedbackMatrix.parse(new Word("speed"), "bb.yg"));
+        Assertions.assertEquals(FeedbackMatrix.parse(new Word("speed"), "00112"), FeedbackMatrix.parse(new Word("speed"), "00102"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FeedbackMatrix.parse(new Word("speed"), "0011"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FeedbackMatrix.parse(new Word("speed"), "0011x"));
+    }
+
+    @Test
+    void row_matchesCodeForEverySolution() {
+        FeedbackMatrix matrix = new FeedbackMatrix(index);
+        Word guess = new Word("eerie");
+
+        char[] row = matrix.row(guess);
+
+        Assertions.assertEquals(index.size(), row.length);
+        for(int i = 0; i < row.length; i++) {
+            Assertions.assertEquals(FeedbackMatrix.code(guess, index.get(i)), row[i]);
+        }
+        Assertions.assertSame(row, matrix.row(guess));
+    }
+
+    @Test
+    void row_budgetSpent_computesRowsWithoutKeepingThem() {
+        FeedbackMatrix matrix = new FeedbackMatrix(index, index.size());
+        Word kept = new Word("crane");
+        Word overBudget = new Word("speed");
+
+        char[] keptRow = matrix.row(kept);
+        char[] overBudgetRow = matrix.row(overBudget);
+
+        Assertions.assertSame(keptRow, matrix.row(kept));
+        Assertions.assertNotSame(overBudgetRow, matrix.row(overBudget));
+        Assertions.assertArrayEquals(overBudgetRow, matrix.row(overBudget));
+        for(int i = 0; i < overBudgetRow.length; i++) {
+            Assertions.assertEquals(FeedbackMatrix.code(overBudget, index.get(i)), overBudgetRow[i]);
+        }
+    }
+}
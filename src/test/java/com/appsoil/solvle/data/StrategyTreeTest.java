@@ -0,0 +1,39 @@
+package com.appsoil.solvle.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+public class StrategyTreeTest {
+
+    private final StrategyTree tree = StrategyTree.of(Map.of(
+            "abcde", List.of("abcde"),
+            "abcdf", List.of("abcde", "abcdf")), "strategy", 42);
+
+    @Test
+    void write_readBack_solvesTheSameWay(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("trees").resolve("test.tree");
+        tree.write(file);
+
+        StrategyTree read = StrategyTree.read(file, "strategy", 42);
+        Assertions.assertEquals(List.of("abcde", "abcdf"), read.solve(new Word("abcdf")));
+        Assertions.assertNull(StrategyTree.read(file, "strategy", 41));
+    }
+
+    @Test
+    void write_unwritableDirectory_throwsAndLeavesNoFile(@TempDir Path dir) throws IOException {
+        // a regular file where the directory should be
+        Path parent = Files.createFile(dir.resolve("trees"));
+
+        Assertions.assertThrows(IOException.class, () -> tree.write(parent.resolve("test.tree")));
+        try(var files = Files.list(dir)) {
+            Assertions.assertEquals(List.of(parent), files.toList());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.appsoil.solvle.service;
 
+import com.appsoil.solvle.config.CacheConfig;
 import com.appsoil.solvle.config.SolvleConfig;
 import com.appsoil.solvle.controller.SolvleDTO;
 import com.appsoil.solvle.controller.WordScoreDTO;
@@ -26,7 +27,7 @@ import java.util.stream.Stream;
 
 @Log4j2
 @Disabled
-@SpringBootTest(classes = {SolvleService.class, SolvleConfig.class})
+@SpringBootTest(classes = {SolvleService.class, CacheConfig.class, SolvleConfig.class})
 public class FullDictionaryTest {
 
     @Autowired
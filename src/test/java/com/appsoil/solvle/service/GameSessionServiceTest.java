@@ -0,0 +1,124 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.config.CacheConfig;
+import com.appsoil.solvle.controller.SolvleDTO;
+import com.appsoil.solvle.data.Dictionary;
+import com.appsoil.solvle.data.DictionaryEvictedEvent;
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.data.WordFrequencyScore;
+import com.appsoil.solvle.data.WordRestrictions;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@SpringBootTest(classes = {GameSessionService.class, SolvleService.class, CacheConfig.class, GameSessionServiceTest.GameSessionTestConfiguration.class})
+public class GameSessionServiceTest {
+
+    @TestConfiguration
+    public static class GameSessionTestConfiguration {
+        @Bean(name = {"simpleDictionary", "bigDictionary", "hugeDictionary", "reducedDictionary", "icelandicDictionary"})
+        Dictionary getTestDictionary() {
+            Set<Word> words = Stream.of("alert", "later", "alter", "crane", "trace", "react", "quick", "lemon", "melon").map(Word::new).collect(Collectors.toSet());
+            return new Dictionary(Map.of(5, words));
+        }
+    }
+
+    @Autowired
+    GameSessionService gameSessionService;
+
+    @Autowired
+    SolvleService solvleService;
+
+    WordCalculationConfig config = WordCalculationConfig.OPTIMAL_MEAN;
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "alert | 22222 | alert",
+            "alert | 11111 | later",
+            "alert | ggyyy | alter",
+            "quick | 00000 | alert,later,alter,lemon,melon",
+            "lemon | 12122 | melon",
+            "aaxxx | 2.000 | alert,alter",
+    }, delimiter = '|')
+    void guess_feedback_narrowsCandidates(String guess, String feedback, String remaining) {
+        GameSession session = gameSessionService.create(5, "simple", config);
+        gameSessionService.guess(session, guess, feedback);
+
+        Set<String> expected = Arrays.stream(remaining.split(",")).collect(Collectors.toSet());
+        Assertions.assertEquals(expected, session.candidates().stream().map(Word::word).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void analyze_afterGuesses_matchesRestrictionAnalysis() {
+        GameSession session = gameSessionService.create(5, "simple", config);
+        gameSessionService.guess(session, "quick", "00000");
+        gameSessionService.guess(session, "lemon", "11000");
+
+        SolvleDTO fromSession = gameSessionService.analyze(session);
+        WordRestrictions restrictions = WordRestrictions.generateRestrictions(new Word("alert"), new Word("lemon"),
+                WordRestrictions.generateRestrictions(new Word("alert"), new Word("quick"), WordRestrictions.noRestrictions()));
+        SolvleDTO fromRestrictions = solvleService.getWordAnalysis(restrictions, 5, "simple", config);
+
+        Assertions.assertEquals(2, fromSession.totalWords());
+        Assertions.assertEquals(fromRestrictions.wordList().stream().map(WordFrequencyScore::word).toList(),
+                fromSession.wordList().stream().map(WordFrequencyScore::word).toList());
+        Assertions.assertEquals(restrictions.toCanonicalString(), fromSession.restrictionString());
+    }
+
+    @Test
+    void dictionaryEvicted_sessionWords_endsSessionAndDropsAnalyses() {
+        GameSession evicted = gameSessionService.create(5, "simple", config);
+        gameSessionService.guess(evicted, "quick", "00000");
+        gameSessionService.analyze(evicted);
+        Assertions.assertTrue(solvleService.getCandidateCache().estimatedSize() > 0);
+
+        Set<Word> otherWords = new Dictionary(Map.of(5, Set.of(new Word("alert")))).wordsOfLength(5);
+        gameSessionService.dictionaryEvicted(new DictionaryEvictedEvent("other", otherWords));
+        Assertions.assertSame(evicted, gameSessionService.get(evicted.id()));
+
+        gameSessionService.dictionaryEvicted(new DictionaryEvictedEvent("simple", solvleService.getPrimarySet("simple", 5)));
+        solvleService.dictionaryEvicted(new DictionaryEvictedEvent("simple", solvleService.getPrimarySet("simple", 5)));
+        Assertions.assertNull(gameSessionService.get(evicted.id()));
+        Assertions.assertEquals(0, solvleService.getCandidateCache().asMap().size());
+    }
+
+    @Test
+    void guess_sessionsOverMaxSize_evictedByCandidateWeight() {
+        GameSessionService small = new GameSessionService(solvleService, Duration.ofHours(1), DataSize.ofBytes(800));
+        List<GameSession> sessions = IntStream.range(0, 3).mapToObj(i -> small.create(5, "simple", config)).toList();
+        Assertions.assertEquals(GameSessionService.weigh(sessions.get(0)), GameSessionService.weigh(sessions.get(1)));
+
+        int unguessed = GameSessionService.weigh(sessions.get(0));
+        sessions.forEach(session -> small.guess(session, "quick", "00000"));
+        Cache<?, ?> cache = small.getSessionCache();
+        cache.cleanUp();
+
+        Assertions.assertTrue(GameSessionService.weigh(sessions.get(0)) > unguessed);
+        Assertions.assertTrue(cache.policy().eviction().get().weightedSize().getAsLong() <= 800);
+        Assertions.assertTrue(cache.estimatedSize() < 3);
+    }
+
+    @Test
+    void guess_wrongLength_throws() {
+        GameSession session = gameSessionService.create(5, "simple", config);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> gameSessionService.guess(session, "alert", "2222"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> gameSessionService.guess(session, "aler", "2222"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> gameSessionService.guess(session, "alert", "2222z"));
+    }
+}
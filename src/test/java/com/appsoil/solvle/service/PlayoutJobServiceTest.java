@@ -0,0 +1,175 @@
+package com.appsoil.solvle.service;
+
+import com.appsoil.solvle.config.CacheConfig;
+import com.appsoil.solvle.data.Dictionary;
+import com.appsoil.solvle.data.PlayOut;
+import com.appsoil.solvle.data.Word;
+import com.appsoil.solvle.data.WordRestrictions;
+import com.appsoil.solvle.service.solvers.RemainingSolver;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@SpringBootTest(classes = {PlayoutJobService.class, SolvleService.class, CacheConfig.class, PlayoutJobServiceTest.PlayoutJobTestConfiguration.class})
+public class PlayoutJobServiceTest {
+
+    @TestConfiguration
+    public static class PlayoutJobTestConfiguration {
+        @Bean(name = {"simpleDictionary", "bigDictionary", "hugeDictionary", "reducedDictionary", "icelandicDictionary"})
+        Dictionary getTestDictionary() {
+            Set<Word> words = Stream.of("alert", "later", "alter", "crane", "trace", "react", "quick", "lemon", "melon").map(Word::new).collect(Collectors.toSet());
+            return new Dictionary(Map.of(5, words));
+        }
+    }
+
+    @Autowired
+    PlayoutJobService playoutJobService;
+
+    @Autowired
+    SolvleService solvleService;
+
+    WordCalculationConfig config = WordCalculationConfig.OPTIMAL_MEAN;
+
+    @Test
+    void submit_playout_finishesWithSynchronousResult() throws InterruptedException {
+        PlayoutJob job = playoutJobService.submit("abcdefghijklmnopqrstuvwxyz", 5, "simple", config, 0);
+        for(int i = 0; i < 300 && !job.isFinished(); i++) {
+            Thread.sleep(100);
+        }
+
+        Set<PlayOut> expected = solvleService.playOutSolutions("abcdefghijklmnopqrstuvwxyz", 5, "simple", config, 0);
+        Assertions.assertEquals(PlayoutJob.Status.DONE, job.status());
+        Assertions.assertEquals(expected.stream().map(PlayOut::word).toList(), job.result().stream().map(PlayOut::word).toList());
+        Assertions.assertEquals(job.progress().total(), job.progress().completed());
+        Assertions.assertSame(job, playoutJobService.get(job.id()));
+    }
+
+    @Test
+    void cancel_finishedJob_keepsResult() throws InterruptedException {
+        PlayoutJob job = playoutJobService.submit("aelrt", 5, "simple", config, 0);
+        for(int i = 0; i < 300 && !job.isFinished(); i++) {
+            Thread.sleep(100);
+        }
+
+        Assertions.assertSame(job, playoutJobService.cancel(job.id()));
+        Assertions.assertEquals(PlayoutJob.Status.DONE, job.status());
+        Assertions.assertNotNull(job.result());
+        Assertions.assertNull(playoutJobService.cancel("missing"));
+    }
+
+    @Test
+    void cancel_runningJob_keepsOutcomeReportedByWorker() {
+        PlayoutJob job = new PlayoutJob("running");
+        Assertions.assertTrue(job.start());
+
+        job.cancel();
+        Assertions.assertEquals(PlayoutJob.Status.RUNNING, job.status());
+        Assertions.assertTrue(job.progress().isCancelled());
+        job.finish(Set.of());
+        job.cancelled();
+        Assertions.assertEquals(PlayoutJob.Status.DONE, job.status());
+    }
+
+    @Test
+    void cancel_queuedJob_neverStarts() {
+        PlayoutJob job = new PlayoutJob("queued");
+
+        job.cancel();
+        Assertions.assertFalse(job.start());
+        job.finish(Set.of());
+        Assertions.assertEquals(PlayoutJob.Status.CANCELLED, job.status());
+    }
+
+    @Test
+    void playOutSolutions_cancelled_stopsBeforeSolving() {
+        PlayoutProgress progress = new PlayoutProgress();
+        progress.cancel();
+
+        Assertions.assertThrows(CancellationException.class,
+                () -> solvleService.playOutSolutions("abcdefghijklmnopqrstuvwxyz", 5, "simple", config, 0, progress));
+        Assertions.assertEquals(0, progress.completed());
+    }
+
+    @Test
+    void submit_retentionOver_forgetsFinishedJob() throws InterruptedException {
+        PlayoutJobService shortRetention = new PlayoutJobService(solvleService, 1, 1, Duration.ZERO, 10);
+        PlayoutJob job = shortRetention.submit("aelrt", 5, "simple", config, 0);
+        for(int i = 0; i < 300 && !job.isFinished(); i++) {
+            Thread.sleep(100);
+        }
+
+        Assertions.assertEquals(PlayoutJob.Status.DONE, job.status());
+        Assertions.assertNull(shortRetention.get(job.id()));
+        Assertions.assertEquals(List.of(), List.copyOf(shortRetention.getJobCache().asMap().keySet()));
+        shortRetention.shutdown();
+    }
+
+    @Test
+    void submit_moreFinishedJobsThanRetained_keepsMaxRetained() throws InterruptedException {
+        PlayoutJobService smallRetention = new PlayoutJobService(solvleService, 1, 5, Duration.ofHours(1), 2);
+        for(int j = 0; j < 4; j++) {
+            PlayoutJob job = smallRetention.submit("aelrt", 5, "simple", config, 0);
+            for(int i = 0; i < 300 && !job.isFinished(); i++) {
+                Thread.sleep(100);
+            }
+            Assertions.assertEquals(PlayoutJob.Status.DONE, job.status());
+        }
+        smallRetention.getJobCache().cleanUp();
+
+        Assertions.assertEquals(2, smallRetention.getJobCache().estimatedSize());
+        smallRetention.shutdown();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0", "3"})
+    void playOutSolutions_pruned_matchesUnprunedPlayouts(int helperCount) {
+        ExecutorService helpers = Executors.newFixedThreadPool(Math.max(1, helperCount));
+        Set<PlayOut> playOuts;
+        try {
+            playOuts = solvleService.playOutSolutions("abcdefghijklmnopqrstuvwxyz", 5, "simple", config, 0, new PlayoutProgress(), helpers, helperCount);
+        } finally {
+            helpers.shutdownNow();
+        }
+
+        // play out every solution of every pool word, as a run without pruning would
+        WordRestrictions restrictions = new WordRestrictions("abcdefghijklmnopqrstuvwxyz");
+        Set<Word> solutions = solvleService.getPrimarySet("simple", 5);
+        Set<Word> fishing = solvleService.getFishingSet("simple", 5);
+        RemainingSolver solver = new RemainingSolver(solvleService, config);
+        Map<String, Double> means = playOuts.stream().collect(Collectors.toMap(PlayOut::word, playOut -> solutions.stream()
+                .mapToInt(solution -> solver.solve(solution, solutions, fishing, new Word(playOut.word()), restrictions).size())
+                .average().getAsDouble()));
+        double bestMean = means.values().stream().mapToDouble(Double::doubleValue).min().getAsDouble();
+        List<String> bestWords = means.entrySet().stream().filter(e -> e.getValue() == bestMean).map(Map.Entry::getKey).sorted().toList();
+
+        if(helperCount == 0) {
+            // a single thread plays the pool out in a fixed order, so the same words are pruned every time
+            Assertions.assertTrue(playOuts.stream().anyMatch(PlayOut::pruned), playOuts.toString());
+        }
+        // every playout with the best mean finishes, in the order an unpruned run sorts them
+        Assertions.assertEquals(bestWords, playOuts.stream().limit(bestWords.size()).map(PlayOut::word).toList());
+        for(PlayOut playOut : playOuts) {
+            if(playOut.pruned()) {
+                Assertions.assertTrue(playOut.average() <= means.get(playOut.word()) + 1e-9);
+                Assertions.assertTrue(playOut.average() > bestMean);
+            } else {
+                Assertions.assertEquals(means.get(playOut.word()), playOut.average(), 1e-9);
+            }
+        }
+    }
+}
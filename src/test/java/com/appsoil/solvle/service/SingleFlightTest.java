@@ -0,0 +1,101 @@
+package com.appsoil.solvle.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class SingleFlightTest {
+
+    @Test
+    void run_concurrentCallers_computeOnce() throws InterruptedException {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofSeconds(10));
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> flights.run("key", () -> {
+            started.countDown();
+            await(release);
+            return computations.incrementAndGet();
+        }));
+        started.await();
+        List<CompletableFuture<Integer>> waiters = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> flights.run("key", computations::incrementAndGet)))
+                .toList();
+        awaitCoalesced(flights, 4);
+        release.countDown();
+
+        Assertions.assertEquals(1, first.join());
+        waiters.forEach(waiter -> Assertions.assertEquals(1, waiter.join()));
+        Assertions.assertEquals(1, computations.get());
+        Assertions.assertEquals(0, flights.inFlight());
+    }
+
+    @Test
+    void run_computationFails_waitersGetFailureAndNextCallerRetries() throws InterruptedException {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofSeconds(10));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> flights.run("key", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalArgumentException("bad key");
+        }));
+        started.await();
+        CompletableFuture<Integer> waiter = CompletableFuture.supplyAsync(() -> flights.run("key", () -> 2));
+        awaitCoalesced(flights, 1);
+        release.countDown();
+
+        CompletionException firstFailure = Assertions.assertThrows(CompletionException.class, first::join);
+        CompletionException waiterFailure = Assertions.assertThrows(CompletionException.class, waiter::join);
+        Assertions.assertInstanceOf(IllegalArgumentException.class, firstFailure.getCause());
+        // the waiter gets its own exception, caused by the one the computing caller threw
+        Assertions.assertNotSame(firstFailure, waiterFailure);
+        Assertions.assertSame(firstFailure.getCause(), waiterFailure.getCause());
+        Assertions.assertEquals(3, flights.run("key", () -> 3));
+    }
+
+    @Test
+    void run_slowComputation_waiterTimesOut() throws InterruptedException {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> flights.run("key", () -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        started.await();
+
+        SingleFlightTimeoutException timeout = Assertions.assertThrows(SingleFlightTimeoutException.class, () -> flights.run("key", () -> 2));
+        Assertions.assertNotSame(timeout, Assertions.assertThrows(SingleFlightTimeoutException.class, () -> flights.run("key", () -> 2)));
+        Assertions.assertEquals(2, flights.run("other", () -> 2));
+        release.countDown();
+        Assertions.assertEquals(1, first.join());
+    }
+
+    private static void awaitCoalesced(SingleFlight<?, ?> flights, long waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while(flights.coalesced() < waiters) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Waiters never joined the running computation");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
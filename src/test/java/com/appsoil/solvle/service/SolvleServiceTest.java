@@ -1,31 +1,46 @@
 package com.appsoil.solvle.service;
 
+import com.appsoil.solvle.config.CacheConfig;
 import com.appsoil.solvle.controller.SolvleDTO;
+import com.appsoil.solvle.controller.WordScoreDTO;
 import com.appsoil.solvle.data.Dictionary;
+import com.appsoil.solvle.data.StrategyTree;
 import com.appsoil.solvle.data.Word;
 import com.appsoil.solvle.data.WordFrequencyScore;
 import com.appsoil.solvle.data.WordRestrictions;
+import com.appsoil.solvle.service.solvers.RemainingSolver;
+import com.appsoil.solvle.service.solvers.Solver;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
 import org.springframework.context.annotation.Bean;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-@SpringBootTest(classes = {SolvleService.class, SolvleServiceTest.SolvleTestConfiguration.class})
+@SpringBootTest(classes = {SolvleService.class, CacheConfig.class, SolvleServiceTest.SolvleTestConfiguration.class})
 public class SolvleServiceTest {
 
     @TestConfiguration
     public static class SolvleTestConfiguration {
-        @Bean(name = {"simpleDictionary", "bigDictionary", "hugeDictionary", "reducedDictionary"})
+        @Bean(name = {"simpleDictionary", "bigDictionary", "hugeDictionary", "reducedDictionary", "icelandicDictionary"})
         Dictionary getTestDictionary() {
             Set<Word> words = Stream.of("aaaaa", "aaaab", "aaabc", "aabcd", "abcde", "bcdea").map(Word::new).collect(Collectors.toSet());
             Dictionary dictionary = new Dictionary(Map.of(5, words));
@@ -36,6 +51,8 @@ public class SolvleServiceTest {
 
     @Autowired
     SolvleService solvleService;
+    @Autowired
+    CacheManager cacheManager;
     WordCalculationConfig config = WordCalculationConfig.OPTIMAL_MEAN;
 
 
@@ -189,4 +206,162 @@ public class SolvleServiceTest {
         Assertions.assertEquals(expectedResults, results);
     }
 
+    @Test
+    void getWordAnalysis_sameCandidates_reusesAnalysis() {
+        // 'f' and 'z' are not in any word, so both restrictions leave the same candidates
+        SolvleDTO first = solvleService.getWordAnalysis(new WordRestrictions("abcdf"), 5, "simple", config);
+        SolvleDTO second = solvleService.getWordAnalysis(new WordRestrictions("zabcd"), 5, "simple", config);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertNotSame(first, solvleService.getWordAnalysis(new WordRestrictions("abcde"), 5, "simple", config));
+    }
+
+    @Test
+    void solveWord_sameSolver_analysesEachPositionOnce() {
+        RemainingSolver solver = new RemainingSolver(solvleService, config);
+        List<String> guesses = solvleService.solveWord(solver, new Word("bcdea"), "", "simple");
+
+        Assertions.assertEquals(guesses.size(), solver.analyses());
+        Assertions.assertEquals(guesses, solvleService.solveWord(solver, new Word("bcdea"), "", "simple"));
+        Assertions.assertEquals(guesses.size(), solver.analyses());
+    }
+
+    @Test
+    void getScores_restrictionsAndWords_matchSingleScores() {
+        List<String> restrictions = List.of("abcde", "ab!cde", "ABCDE");
+        List<String> words = List.of("aaaab", "abcde", "bcdea", "edcba");
+        Map<String, Map<String, WordScoreDTO>> scores = solvleService.getScores(restrictions, words, "simple", config);
+
+        Assertions.assertEquals(restrictions, List.copyOf(scores.keySet()));
+        for(String restriction : restrictions) {
+            Assertions.assertEquals(words, List.copyOf(scores.get(restriction).keySet()));
+            for(String word : words) {
+                Assertions.assertEquals(solvleService.getScore(restriction, word, "simple", config), scores.get(restriction).get(word));
+            }
+        }
+    }
+
+    @Test
+    void getScores_sharesWordScoreCache() {
+        Cache wordScoreCache = cacheManager.getCache("wordScore");
+        Object storedKey = SimpleKeyGenerator.generateKey(WordRestrictions.canonicalize("bcd!ea"), "bcdea", "simple", config);
+        Object cachedKey = SimpleKeyGenerator.generateKey(WordRestrictions.canonicalize("bcd!ea"), "aabcd", "simple", config);
+        WordScoreDTO cached = new WordScoreDTO(-1, -1);
+        wordScoreCache.put(cachedKey, cached);
+
+        Map<String, WordScoreDTO> scores = solvleService.getScores(List.of("BCD!EA"), List.of("BCDEA", "aabcd"), "simple", config).get("BCD!EA");
+
+        Assertions.assertEquals(scores.get("BCDEA"), wordScoreCache.get(storedKey, WordScoreDTO.class));
+        Assertions.assertSame(cached, scores.get("aabcd"));
+        wordScoreCache.evict(cachedKey);
+    }
+
+    @Test
+    void getScores_invalidBatch_throws() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> solvleService.getScores(List.of(), List.of("abcde"), "simple", config));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> solvleService.getScores(List.of("abcde"), List.of(""), "simple", config));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> solvleService.getScores(List.of("abcde"), List.of("abcdef"), "simple", config));
+    }
+
+    @Test
+    void startDictionarySolve_allWords_matchesSolvingEachWord() {
+        Solver solver = new RemainingSolver(solvleService, config);
+        DictionarySolve.Result result = solvleService.startDictionarySolve(solver, "abcde", config, "simple", 5).result().join();
+
+        Assertions.assertFalse(result.cancelled());
+        Assertions.assertEquals(6, result.summary().words());
+        for(String word : List.of("aaaaa", "aaaab", "aaabc", "aabcd", "abcde", "bcdea")) {
+            Assertions.assertEquals(solvleService.solveWord(solver, new Word(word), "abcde", "simple"), result.solutions().get(word));
+        }
+        Assertions.assertEquals(1, result.summary().guessCounts().get(1));
+    }
+
+    @Test
+    void dictionarySolve_checkpoint_resumesSolvedWords(@TempDir Path dir) throws IOException {
+        // the last line was cut off mid-write, so only aaaaa counts as solved
+        Path checkpoint = dir.resolve("solve.txt");
+        Files.writeString(checkpoint, DictionarySolve.header(42) + "\naaaaa\tabcde,aaaaa\nabcde\tab");
+        Set<String> solved = ConcurrentHashMap.newKeySet();
+        Set<Word> words = Stream.of("aaaaa", "abcde").map(Word::new).collect(Collectors.toSet());
+
+        DictionarySolve solve = new DictionarySolve(words, word -> {
+            solved.add(word.word());
+            return List.of(word.word());
+        }, checkpoint, 42).start(Runnable::run);
+
+        Assertions.assertEquals(Set.of("abcde"), solved);
+        Assertions.assertEquals(Map.of("aaaaa", List.of("abcde", "aaaaa"), "abcde", List.of("abcde")), solve.result().join().solutions());
+        Assertions.assertEquals(1.5, solve.result().join().summary().mean());
+        Assertions.assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    void dictionarySolve_checkpointForOtherWordLists_solvesEveryWord(@TempDir Path dir) throws IOException {
+        Path checkpoint = dir.resolve("solve.txt");
+        Files.writeString(checkpoint, DictionarySolve.header(41) + "\naaaaa\tabcde,aaaaa\n");
+        Set<String> solved = ConcurrentHashMap.newKeySet();
+        Set<Word> words = Stream.of("aaaaa", "abcde").map(Word::new).collect(Collectors.toSet());
+
+        DictionarySolve solve = new DictionarySolve(words, word -> {
+            solved.add(word.word());
+            return List.of(word.word());
+        }, checkpoint, 42).start(Runnable::run);
+
+        Assertions.assertEquals(Set.of("aaaaa", "abcde"), solved);
+        Assertions.assertEquals(List.of("aaaaa"), solve.result().join().solutions().get("aaaaa"));
+    }
+
+    @Test
+    void dictionarySolve_cancelled_keepsCheckpoint(@TempDir Path dir) throws IOException {
+        Path checkpoint = dir.resolve("solve.txt");
+        Set<Word> words = Stream.of("aaaaa", "aaaab", "abcde").map(Word::new).collect(Collectors.toSet());
+        DictionarySolve[] solve = new DictionarySolve[1];
+
+        solve[0] = new DictionarySolve(words, word -> {
+            solve[0].cancel();
+            return List.of(word.word());
+        }, checkpoint, 42);
+        DictionarySolve.Result result = solve[0].start(Runnable::run).result().join();
+
+        Assertions.assertTrue(result.cancelled());
+        Assertions.assertEquals(1, result.solutions().size());
+        Assertions.assertEquals(1, solve[0].completed());
+        List<String> lines = Files.readAllLines(checkpoint);
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertEquals(DictionarySolve.header(42), lines.get(0));
+    }
+
+    @Test
+    void strategyTree_presetConfig_matchesLiveSolve(@TempDir Path dir) {
+        StrategyTreeService strategyTreeService = new StrategyTreeService(solvleService, dir.toString());
+        StrategyTree tree = strategyTreeService.build("OPTIMAL_MEAN", "simple", 5);
+        // a new service reads the tree that was written by the first
+        StrategyTreeService restarted = new StrategyTreeService(solvleService, dir.toString());
+
+        for(String word : List.of("aaaaa", "aaaab", "aaabc", "aabcd", "abcde", "bcdea")) {
+            List<String> live = solvleService.solveWord(new RemainingSolver(solvleService, WordCalculationConfig.OPTIMAL_MEAN), new Word(word), "", "simple");
+            Assertions.assertEquals(live, tree.solve(new Word(word)));
+            Assertions.assertEquals(live, restarted.solveWord(WordCalculationConfig.OPTIMAL_MEAN, new Word(word), "", "simple"));
+        }
+        Assertions.assertNull(tree.solve(new Word("zzzzz")));
+        Assertions.assertNull(StrategyTree.read(strategyTreeService.file("OPTIMAL_MEAN", "simple", 5), "other strategy", tree.fingerprint()));
+    }
+
+    @Test
+    void strategyTree_writtenAfterMiss_isReadWhenItChanges(@TempDir Path dir) throws IOException {
+        StrategyTreeService strategyTreeService = new StrategyTreeService(solvleService, dir.toString());
+        Word word = new Word("bcdea");
+        List<String> live = solvleService.solveWord(new RemainingSolver(solvleService, WordCalculationConfig.OPTIMAL_MEAN), word, "", "simple");
+        Assertions.assertEquals(live, strategyTreeService.solveWord(WordCalculationConfig.OPTIMAL_MEAN, word, "", "simple"));
+
+        // another process writes the tree after this service found none, and later replaces it
+        StrategyTree tree = new StrategyTreeService(solvleService, dir.toString()).build("OPTIMAL_MEAN", "simple", 5);
+        Path file = strategyTreeService.file("OPTIMAL_MEAN", "simple", 5);
+        Assertions.assertEquals(live, strategyTreeService.solveWord(WordCalculationConfig.OPTIMAL_MEAN, word, "", "simple"));
+        StrategyTree.of(Map.of("bcdea", List.of("aaaaa", "bcdea")), tree.strategy(), tree.fingerprint()).write(file);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 60_000));
+
+        Assertions.assertEquals(List.of("aaaaa", "bcdea"), strategyTreeService.solveWord(WordCalculationConfig.OPTIMAL_MEAN, word, "", "simple"));
+    }
+
 }
@@ -1,6 +1,11 @@
 package com.appsoil.solvle.service;
 
+import com.appsoil.solvle.data.Alphabet;
 import com.appsoil.solvle.data.Dictionary;
+import com.appsoil.solvle.data.KnownPosition;
+import com.appsoil.solvle.data.LetterCounts;
+import com.appsoil.solvle.data.PartitionStats;
+import com.appsoil.solvle.data.PositionLetterCounts;
 import com.appsoil.solvle.data.Word;
 import com.appsoil.solvle.data.WordFrequencyScore;
 import com.appsoil.solvle.data.WordRestrictions;
@@ -9,11 +14,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.atomic.DoubleAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -27,25 +35,81 @@ public class WordCalculationServiceTest {
 
     @Test
     void calculateCharacterCounts_allLettersPresent_countsCorrectly() {
-        Map<Character, LongAdder> counts = wordCalculationService.calculateCharacterCounts(ALL_LETTERS_WORD_SET);
+        LetterCounts counts = wordCalculationService.calculateCharacterCounts(ALL_LETTERS_WORD_SET);
 
         ALPHABET_SET.forEach(c -> {
             if(CHARACTERS_IN_TWO_WORDS.contains(c)) {
-                Assertions.assertEquals(2, counts.get(c).intValue());
+                Assertions.assertEquals(2, counts.get(c));
             } else {
-                Assertions.assertEquals(1, counts.get(c).intValue());
+                Assertions.assertEquals(1, counts.get(c));
             }
         });
     }
 
+    @Test
+    void calculateCharacterCounts_uppercaseWords_countedAsTheirLetters() {
+        LetterCounts counts = wordCalculationService.calculateCharacterCounts(Set.of(new Word("AB"), new Word("BÞ")));
+
+        Assertions.assertEquals(Alphabet.indexOf('a'), Alphabet.indexOf('A'));
+        Assertions.assertEquals(1, counts.get('a'));
+        Assertions.assertEquals(2, counts.get('b'));
+        Assertions.assertEquals(1, counts.get('þ'));
+        Assertions.assertEquals(0, counts.get(Alphabet.UNKNOWN_INDEX));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "abcde, abcde, true",
+            "abcde, abcdf, false",
+            "a1bcde, abcde, true",
+            "a2bcde, abcde, false",
+            "a!1bcde, abcde, false",
+            "a!2bcde, abcde, true",
+            "þæbcde, þæbcd, true",
+            "abcde, abcdñ, false"})
+    void isValidWord_bitmaskMatching_matchesRestrictions(String restrictions, String word, boolean valid) {
+        Assertions.assertEquals(valid, wordCalculationService.isValidWord(new Word(word), new WordRestrictions(restrictions)));
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "abc1 | bc1a | abc1",
+            "cba | aabbcc | abc",
+            "a!12b3 | b3a!21a!1 | a!12b3",
+            "a!1b1 | b1a! | a!b1",
+            "d!4e!5xyz | zyxe!5d!4 | d!4e!5xyz",
+    }, delimiter = '|')
+    void toCanonicalString_equivalentRestrictions_produceSameString(String first, String second, String canonical) {
+        Assertions.assertEquals(canonical, new WordRestrictions(first).toCanonicalString());
+        Assertions.assertEquals(canonical, new WordRestrictions(second).toCanonicalString());
+        Assertions.assertEquals(canonical, WordRestrictions.canonicalize(canonical));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "abcdefghijklmnopqrstuvwxyz",
+            "ab1cdefghijklmnopqrstuvwxyz",
+            "a!1bcdefghijklmnopqrstuvwxyz",
+            "abcde!12fghijklmno3pqrstuvwxyz",
+            "aeiou!3lmnrst",
+            "q5"})
+    void findMatchingWords_indexedSet_matchesScan(String restrictionString) {
+        Set<Word> words = Stream.of("alert", "later", "alter", "quick", "equip", "sauce", "cause", "lemon", "melon", "baaaq").map(Word::new).collect(Collectors.toSet());
+        Set<Word> indexed = getFormattedWords(words);
+        WordRestrictions restrictions = new WordRestrictions(restrictionString);
+
+        Assertions.assertEquals(wordCalculationService.findMatchingWords(words, restrictions), wordCalculationService.findMatchingWords(indexed, restrictions));
+    }
+
     @ParameterizedTest
     @CsvSource({
             "later, alert, 1.0",
             "abcde, abcdd, 0.8",
             "abcde, aaaaa, 0.2",
-            "abcde, fghij, 0.0"})
+            "abcde, fghij, 0.0",
+            "ab1de, ab1de, 1.0"})
     void calculateViableResults_singleSourceAndWord_returnsNumberOfSourceCharacters(String sourceWord, String viableWord, double score) {
-        Map<Character, LongAdder> counts = wordCalculationService.calculateCharacterCounts(Set.of(new Word(sourceWord)));
+        LetterCounts counts = wordCalculationService.calculateCharacterCounts(Set.of(new Word(sourceWord)));
         Set<Word> viableWords = Set.of(new Word(viableWord));
 
         Set<WordFrequencyScore> scores = wordCalculationService.calculateViableWords(viableWords, counts, 1, 0, 100, new HashMap<>());
@@ -53,6 +117,18 @@ public class WordCalculationServiceTest {
         Assertions.assertEquals(score, scores.stream().findFirst().get().freqScore());
     }
 
+    @Test
+    void calculateFreqScore_rutBreakBonus_leavesScoreUnchanged() {
+        // letter frequency scoring has never applied the rut-break bonus, and the presets' statistics depend on that
+        Word word = new Word("abcde");
+        LetterCounts counts = wordCalculationService.calculateCharacterCounts(Set.of(word));
+        Map<Character, DoubleAdder> bonus = new HashMap<>();
+        bonus.computeIfAbsent('a', c -> new DoubleAdder()).add(0.5);
+
+        Assertions.assertEquals(wordCalculationService.calculateFreqScore(word, counts, 1, 5, new HashMap<>()),
+                wordCalculationService.calculateFreqScore(word, counts, 1, 5, bonus));
+    }
+
     @ParameterizedTest
     @CsvSource({
             "later, alert, 1.0, a",
@@ -62,7 +138,7 @@ public class WordCalculationServiceTest {
             "abcde, aahij, 0.0, a",
             "abcde, fghij, 0.0, g"})
     void calculateFishingWords_singleSourceAndWord_excludesCharactersFromCount(String sourceWord, String viableWord, double score, Character requiredChar) {
-        Map<Character, LongAdder> counts = wordCalculationService.calculateCharacterCounts(Set.of(new Word(sourceWord)));
+        LetterCounts counts = wordCalculationService.calculateCharacterCounts(Set.of(new Word(sourceWord)));
         Set<Word> viableWords = Set.of(new Word(viableWord));
 
         Set<WordFrequencyScore> scores = wordCalculationService.calculateFishingWords(viableWords, counts, 1, 100, Set.of(requiredChar), new HashMap<>());
@@ -70,6 +146,23 @@ public class WordCalculationServiceTest {
         Assertions.assertEquals(score, scores.stream().findFirst().get().freqScore());
     }
 
+    @ParameterizedTest
+    @CsvSource({"1", "3", "7", "20"})
+    void calculateViableWords_sizeLimit_keepsTopScoresInOrder(int sizeLimit) {
+        // several anagrams so that ties have to be broken by natural ordering
+        Set<Word> words = getFormattedWords(Stream.of("alert", "later", "alter", "crane", "trace", "react", "quick", "lemon", "melon", "baaaq")
+                .map(Word::new).collect(Collectors.toSet()));
+        LetterCounts counts = wordCalculationService.calculateCharacterCounts(words);
+
+        List<WordFrequencyScore> all = words.stream()
+                .map(word -> new WordFrequencyScore(word.getOrder(), word.word(), wordCalculationService.calculateFreqScore(word, counts, words.size(), word.getLength(), new HashMap<>())))
+                .sorted()
+                .toList();
+        Set<WordFrequencyScore> top = wordCalculationService.calculateViableWords(words, counts, words.size(), 0, sizeLimit, new HashMap<>());
+
+        Assertions.assertEquals(all.subList(0, Math.min(sizeLimit, all.size())), new ArrayList<>(top));
+    }
+
     @Test
     void calculateFishingWordsByPosition_priotizesNewLettersFollowedByPossibleSolutions() {
 
@@ -121,11 +214,130 @@ public class WordCalculationServiceTest {
         System.out.println(scores.toString());
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            "'', 0",
+            "BE4!5FGHJKMO2PQR5UVXYZ, 0",
+            "BE4!5FGHJKMO2PQR5!4UVXZ, 3"})
+    void calculateFreqScoreByPosition_weightTable_matchesPerWordCalculation(String restrictionString, int requiredCharCount) {
+        // every bonus and adjustment switched on, so each factor of the table is compared
+        WordCalculationConfig config = new WordCalculationConfig(4, 7, 0, 0.005).withFineTuning(0.5, 0.3, 0.2, 0.8);
+        WordCalculationService service = new WordCalculationService(config);
+        Set<Word> viableWords = Stream.of("hover", "mover", "homer", "joker", "poker", "rover", "boxer", "foyer", "roger").map(Word::new).collect(Collectors.toSet());
+        Set<Word> scoredWords = new HashSet<>(viableWords);
+        Stream.of("haver", "chivy", "bumph", "error", "eerie", "mamma", "óðinn").map(Word::new).forEach(scoredWords::add);
+        WordRestrictions restrictions = new WordRestrictions(restrictionString.toLowerCase());
+        var characterCounts = service.calculateCharacterCountsByPosition(viableWords);
+        Map<Character, DoubleAdder> positionBonus = new HashMap<>();
+        positionBonus.computeIfAbsent('o', c -> new DoubleAdder()).add(0.75);
+        positionBonus.computeIfAbsent('r', c -> new DoubleAdder()).add(0.25);
+
+        for(Word word : scoredWords) {
+            int maxScore = word.getLength() - requiredCharCount;
+            double expected = perWordScoreByPosition(config, word, characterCounts, viableWords, maxScore, restrictions, positionBonus);
+            double actual = service.calculateFreqScoreByPosition(word, characterCounts, viableWords, maxScore, restrictions, positionBonus);
+            // the table sums the same terms in a different order, so only the last bits may differ
+            Assertions.assertEquals(expected, actual, 1e-9, word.word());
+        }
+    }
+
+    /**
+     * The positional score as it was calculated before the weight table: every letter of the word compared against
+     * the counts of every position, with the bonuses worked out per letter.
+     */
+    private static double perWordScoreByPosition(WordCalculationConfig config, Word word, PositionLetterCounts wordsWithCharacter, Set<Word> containedWords,
+                                                 int maxScore, WordRestrictions wordRestrictions, Map<Character, DoubleAdder> positionBonus) {
+        if(containedWords.size() < 1 || maxScore < 1) {
+            return 0.0;
+        }
+        double numKnownLetters = wordRestrictions.letterPositions().keySet().size();
+        double wordLength = word.getLength();
+        double locationAdjustment = 1 - ((numKnownLetters / wordLength) * config.locationAdjustmentScale());
+        double uniqueAdjustment = 1 - ((1 - (wordLength / 36)) * config.uniqueAdjustmentScale());
+        double viableWordAdjustment = config.viableWordPreference() - ((numKnownLetters * config.viableWordAdjustmentScale()) / wordLength);
+
+        double totalScore = 0.0;
+        for(int i = 0; i < word.getLength(); i++) {
+            char c = word.charAt(i);
+            double vowelPenalty = Set.of('a', 'e', 'i', 'o', 'u').contains(c) ? config.vowelMultiplier() : 1.0;
+            double uniqueBonus = word.count(c) < 2 && !wordRestrictions.requiredLetters().contains(c) ? 1 + (config.uniquenessMultiplier() - 1) * uniqueAdjustment : 1;
+            double rutBreakerBonus = positionBonus.containsKey(c) ? positionBonus.get(c).doubleValue() : 0.0;
+            for(int j = 0; j < word.getLength(); j++) {
+                double locationBonus = (i == j) ? 1 + (config.rightLocationMultiplier() - 1) * locationAdjustment : 1;
+                int count = wordsWithCharacter.get(j, Alphabet.indexOf(c));
+                double numerator = count > 0 ? count + rutBreakerBonus : 0;
+                totalScore += (numerator * locationBonus * uniqueBonus * vowelPenalty)
+                        / (containedWords.size() * maxScore * config.rightLocationMultiplier());
+            }
+        }
+        if(totalScore > 0 && containedWords.contains(word)) {
+            totalScore += viableWordAdjustment;
+        }
+        return totalScore;
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "eight light might night sight tight fight wight rower toner boxer joker poker hover mover homer ached aches ocher",
+            "batter butter bitter better hatter hitter potter putter latter letter litter matter mutter"})
+    void findSharedWordRestrictions_matchesPairwiseComparison(String wordList) {
+        Set<Word> words = getFormattedWords(Arrays.stream(wordList.split(" ")).map(Word::new).collect(Collectors.toSet()));
+
+        // every pair of words that shares 3 or more, but not all, positions
+        Map<KnownPosition, Set<Word>> expected = new HashMap<>();
+        for(Word a : words) {
+            for(Word b : words) {
+                Map<Integer, Character> shared = new HashMap<>();
+                for(int i = 0; i < a.getLength(); i++) {
+                    if(a.charAt(i) == b.charAt(i)) {
+                        shared.put(i + 1, a.charAt(i));
+                    }
+                }
+                if(shared.size() >= 3 && shared.size() < a.getLength()) {
+                    expected.computeIfAbsent(KnownPosition.of(shared), k -> new HashSet<>()).addAll(List.of(a, b));
+                }
+            }
+        }
+
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected, wordCalculationService.findSharedWordRestrictions(words).knownPositions());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "abcdefghijklmnopqrstuvwxyz",
+            "abcdefghijklmnpqrstuvwxyz",
+            "ghilmnst",
+            "e!5abcdfghijkmnoprstuvwxy"})
+    void findSharedWordRestrictions_indexedCandidates_matchesGroupingOnlyCandidates(String restrictionString) {
+        Set<Word> words = getFormattedWords(Stream.of("eight", "light", "might", "night", "sight", "tight", "fight", "ought", "bight",
+                "rower", "toner", "boxer", "joker", "poker", "hover", "mover", "homer", "cover", "cower", "tower").map(Word::new).collect(Collectors.toSet()));
+        Set<Word> candidates = wordCalculationService.findMatchingWords(words, new WordRestrictions(restrictionString));
+
+        Assertions.assertEquals(wordCalculationService.findSharedWordRestrictions(new HashSet<>(candidates)).knownPositions(),
+                wordCalculationService.findSharedWordRestrictions(candidates).knownPositions());
+    }
+
+    @Test
+    void getPartitionStatsForWord_groupsByFeedback_summarizesGroups() {
+        Set<Word> viableWords = getFormattedWords(Stream.of("hover", "mover", "homer", "joker", "poker", "rover").map(Word::new).collect(Collectors.toSet()));
+        WordRestrictions restrictions = new WordRestrictions("abcdefghijklmnopqrstuvwxyz");
+
+        // h and m split off hover, homer and mover, so the groups are {hover}, {mover}, {homer}, {joker, poker, rover}
+        PartitionStats stats = wordCalculationService.getPartitionStatsForWord(restrictions, viableWords, new Word("humid"));
+
+        Assertions.assertEquals(6, stats.solutions());
+        Assertions.assertEquals(4, stats.groups());
+        Assertions.assertEquals(3, stats.max());
+        Assertions.assertEquals((1 + 1 + 1 + 9) / 6.0, stats.mean(), 0.000001);
+        Assertions.assertEquals(3 * (1 / 6.0) * Math.log(6) / Math.log(2) + 0.5, stats.entropy(), 0.000001);
+    }
+
     private static Set<Word> getFormattedWords(Set<Word> words) {
         int size = words.stream().findFirst().get().getLength();
         var wordMap = Map.of(size, words);
         var d = new Dictionary(wordMap);
-        return d.wordsBySize().get(size);
+        return d.wordsOfLength(size);
     }
 
 }